@@ -0,0 +1,22 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Lets the gateway talk cleartext HTTP/2 (h2c) to the services, so concurrent requests to
+ * one instance share a few multiplexed connections instead of each holding its own.
+ * Services that only speak HTTP/1.1 decline the upgrade and are served over HTTP/1.1.
+ */
+@Configuration
+public class HttpClientConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "gateway.upstream.h2c", havingValue = "true")
+    public HttpClientCustomizer h2cHttpClientCustomizer() {
+        return httpClient -> httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rate limit settings. Limits are keyed by gateway route id, e.g.
+ * gateway.rate-limit.routes.product-service.replenish-rate=20 and
+ * gateway.rate-limit.routes.product-service.burst-capacity=40.
+ * Routes without an entry get gateway.rate-limit.default-limit, so a route added later (or
+ * generated, like discovery locator routes) is never left unlimited.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    
+    private Map<String, Limit> routes = new LinkedHashMap<>();
+    
+    private Limit defaultLimit = new Limit();
+    
+    public static class Limit {
+        
+        // Tokens added per second, i.e. the sustained request rate per caller
+        private int replenishRate = 10;
+        
+        // Largest burst a caller may send after being idle
+        private int burstCapacity = 20;
+        
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+        
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+        
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+        
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+    }
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public Map<String, Limit> getRoutes() {
+        return routes;
+    }
+    
+    public void setRoutes(Map<String, Limit> routes) {
+        this.routes = routes;
+    }
+    
+    public Limit getDefaultLimit() {
+        return defaultLimit;
+    }
+    
+    public void setDefaultLimit(Limit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+    
+    public Limit limitFor(String routeId) {
+        return routes.getOrDefault(routeId, defaultLimit);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Edge response cache settings. Rules are keyed by gateway route id, e.g.
+ * gateway.cache.routes.product-service.ttl=30s and
+ * gateway.cache.routes.product-service.paths=/api/products,/api/products/category/**.
+ * Only list responses that are the same for every caller.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.cache")
+public class ResponseCacheProperties {
+    
+    private boolean enabled = true;
+    
+    private int maximumEntries = 1000;
+    
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+    
+    // Larger responses are passed through without being cached
+    private DataSize maximumBodySize = DataSize.ofMegabytes(1);
+    
+    private Map<String, Route> routes = new LinkedHashMap<>();
+    
+    public static class Route {
+        
+        // Ant-style path patterns; empty means every path of the route
+        private List<String> paths = new ArrayList<>();
+        
+        private Duration ttl = Duration.ofSeconds(30);
+        
+        public List<String> getPaths() {
+            return paths;
+        }
+        
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+        
+        public Duration getTtl() {
+            return ttl;
+        }
+        
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getMaximumEntries() {
+        return maximumEntries;
+    }
+    
+    public void setMaximumEntries(int maximumEntries) {
+        this.maximumEntries = maximumEntries;
+    }
+    
+    public DataSize getMaximumSize() {
+        return maximumSize;
+    }
+    
+    public void setMaximumSize(DataSize maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+    
+    public DataSize getMaximumBodySize() {
+        return maximumBodySize;
+    }
+    
+    public void setMaximumBodySize(DataSize maximumBodySize) {
+        this.maximumBodySize = maximumBodySize;
+    }
+    
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+    
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+}
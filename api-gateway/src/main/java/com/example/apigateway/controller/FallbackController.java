@@ -0,0 +1,66 @@
+package com.example.apigateway.controller;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+
+/**
+ * Target of the CircuitBreaker filters' fallbackUri. Answers immediately with an error the
+ * frontend can show, instead of leaving the caller waiting on a service that is down.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+    
+    @RequestMapping("/{service}")
+    public Mono<ResponseEntity<Map<String, Object>>> fallback(@PathVariable String service, ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        
+        HttpStatus status;
+        String message;
+        if (cause instanceof CallNotPermittedException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+            message = service + " is temporarily unavailable, please try again shortly";
+        } else if (isTimeout(cause)) {
+            status = HttpStatus.GATEWAY_TIMEOUT;
+            message = service + " did not respond in time";
+        } else {
+            status = HttpStatus.BAD_GATEWAY;
+            message = service + " could not process the request";
+        }
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("service", service);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (cause instanceof CallNotPermittedException) {
+            // Matches wait-duration-in-open-state, after which the breaker lets probes through
+            response.header(HttpHeaders.RETRY_AFTER, "10");
+        }
+        return Mono.just(response.body(body));
+    }
+    
+    // The route's response timeout surfaces as a 504 from the routing filter, the breaker's
+    // own time limit as a TimeoutException
+    private static boolean isTimeout(Throwable cause) {
+        if (cause instanceof ResponseStatusException) {
+            return ((ResponseStatusException) cause).getStatus() == HttpStatus.GATEWAY_TIMEOUT;
+        }
+        return cause instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.apigateway.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Caps the number of requests each route may have in flight, using the bulkheads
+ * configured under resilience4j.bulkhead.instances.&lt;route id&gt;. A slow service can then
+ * only tie up its own share of the gateway's connections; once its bulkhead is full,
+ * further requests to it get 503 straight away while the other routes keep working.
+ * Routes without a bulkhead instance are not limited.
+ */
+@Component
+public class BulkheadFilter implements GlobalFilter, Ordered {
+    
+    // After rate limiting and the response cache, so cache hits never take a permit
+    public static final int ORDER = -50;
+    
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        Optional<Bulkhead> bulkhead = bulkheadRegistry.find(route.getId());
+        if (!bulkhead.isPresent()) {
+            return chain.filter(exchange);
+        }
+        
+        // The permit is taken on subscribe and released on completion, error or cancel
+        return chain.filter(exchange)
+            .transformDeferred(BulkheadOperator.of(bulkhead.get()))
+            .onErrorResume(BulkheadFullException.class, e -> reject(exchange));
+    }
+    
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+    
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.apigateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.retry.Jitter;
+import reactor.retry.Repeat;
+import reactor.retry.Retry;
+
+/**
+ * The built-in Retry filter with random jitter added to its backoff, so requests that
+ * failed together don't all retry at the same instant. Configured exactly like Retry,
+ * under the name JitteredRetry; jitter only applies when a backoff is set.
+ */
+@Component
+public class JitteredRetryGatewayFilterFactory extends RetryGatewayFilterFactory {
+    
+    // Each delay is randomized by up to half of itself in either direction
+    private static final double JITTER_FACTOR = 0.5;
+    
+    @Override
+    public GatewayFilter apply(String routeId, Repeat<ServerWebExchange> repeat, Retry<ServerWebExchange> retry) {
+        return super.apply(routeId,
+            repeat == null ? null : repeat.jitter(Jitter.random(JITTER_FACTOR)),
+            retry == null ? null : retry.jitter(Jitter.random(JITTER_FACTOR)));
+    }
+}
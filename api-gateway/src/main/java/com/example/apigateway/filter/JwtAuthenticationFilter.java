@@ -0,0 +1,189 @@
+package com.example.apigateway.filter;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies bearer tokens once at the edge and hands the caller's identity to the services
+ * as X-User-Id / X-User-Role headers. Requests with a bad token are answered with 401 here
+ * and never reach a service. Requests without a token pass through unless the path is
+ * listed in gateway.auth.protected-paths.
+ * <p>
+ * Uses the same jwt.secret, jwt.key-id and jwt.retired-keys settings as user-service,
+ * which issues the tokens.
+ */
+@Component
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+    
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+    
+    // Runs before rate limiting and caching, which key on the verified identity
+    public static final int ORDER = -200;
+    
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    
+    @Value("${jwt.secret}")
+    private String secret;
+    
+    @Value("${jwt.key-id:primary}")
+    private String keyId;
+    
+    @Value("${jwt.retired-keys:}")
+    private String retiredKeys;
+    
+    @Value("${gateway.auth.protected-paths:}")
+    private List<String> protectedPaths;
+    
+    private JwtParser parser;
+    
+    @PostConstruct
+    public void init() {
+        SecretKey signingKey = toKey(secret);
+        Map<String, SecretKey> keys = new HashMap<>();
+        keys.put(keyId, signingKey);
+        for (String entry : retiredKeys.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0 || separator == trimmed.length() - 1) {
+                throw new IllegalStateException("jwt.retired-keys entries must be kid:secret");
+            }
+            keys.putIfAbsent(trimmed.substring(0, separator), toKey(trimmed.substring(separator + 1)));
+        }
+        Map<String, SecretKey> verificationKeys = Collections.unmodifiableMap(keys);
+        
+        // Built once; JwtParser is immutable and thread-safe
+        parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    if (header.getKeyId() == null) {
+                        return signingKey;
+                    }
+                    SecretKey key = verificationKeys.get(header.getKeyId());
+                    if (key == null) {
+                        throw new UnsupportedJwtException("Unknown signing key id: " + header.getKeyId());
+                    }
+                    return key;
+                }
+            })
+            .build();
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            // CORS preflights never carry credentials
+            if (request.getMethod() != HttpMethod.OPTIONS && isProtected(request.getPath().value())) {
+                return reject(exchange, null);
+            }
+            // Identity headers are only ever set by this filter
+            return chain.filter(exchange.mutate().request(stripIdentity(request)).build());
+        }
+        
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(header.substring(BEARER_PREFIX.length()).trim()).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected token for {}: {}", request.getPath(), e.getMessage());
+            return reject(exchange, "Invalid or expired token");
+        }
+        
+        Long userId = claims.get("userId", Long.class);
+        String role = claims.get("role", String.class);
+        ServerHttpRequest authenticated = request.mutate()
+            .headers(headers -> {
+                headers.remove(USER_ID_HEADER);
+                headers.remove(USER_ROLE_HEADER);
+                if (userId != null) {
+                    headers.set(USER_ID_HEADER, userId.toString());
+                }
+                if (role != null) {
+                    headers.set(USER_ROLE_HEADER, role);
+                }
+            })
+            .build();
+        return chain.filter(exchange.mutate().request(authenticated).build());
+    }
+    
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+    
+    private boolean isProtected(String path) {
+        for (String pattern : protectedPaths) {
+            if (pathMatcher.match(pattern.trim(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private ServerHttpRequest stripIdentity(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        if (!headers.containsKey(USER_ID_HEADER) && !headers.containsKey(USER_ROLE_HEADER)) {
+            return request;
+        }
+        return request.mutate()
+            .headers(mutable -> {
+                mutable.remove(USER_ID_HEADER);
+                mutable.remove(USER_ROLE_HEADER);
+            })
+            .build();
+    }
+    
+    // A null description means no token was sent, which per RFC 6750 carries no error code
+    private Mono<Void> reject(ServerWebExchange exchange, String description) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, description == null
+            ? "Bearer"
+            : "Bearer error=\"invalid_token\", error_description=\"" + description + "\"");
+        return response.setComplete();
+    }
+    
+    private static SecretKey toKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.RateLimitProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Admission control for every route: the limits under gateway.rate-limit.routes, or
+ * gateway.rate-limit.default-limit for routes without their own entry. Authenticated callers are limited by user id, everyone else by client IP, with a
+ * separate bucket per route. Over-limit requests get 429 with Retry-After and never
+ * reach the service.
+ * <p>
+ * Works on a single node without Redis; with several gateway instances each enforces
+ * its own share of the limit.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+    
+    // After JWT verification (the user id comes from it), before the response cache
+    public static final int ORDER = -150;
+    
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    
+    @Autowired
+    private RateLimitProperties properties;
+    
+    @Autowired
+    private RateLimiter rateLimiter;
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        RateLimitProperties.Limit limit = properties.limitFor(route.getId());
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(route.getId(), callerKey(exchange), limit);
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(REMAINING_HEADER, String.valueOf(decision.getRemaining()));
+        if (decision.isAllowed()) {
+            return chain.filter(exchange);
+        }
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(decision.getRetryAfterSeconds()));
+        return response.setComplete();
+    }
+    
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+    
+    // X-User-Id can be trusted here: JwtAuthenticationFilter strips any client-supplied value.
+    // X-Forwarded-For is not used since clients can set it freely.
+    private String callerKey(ServerWebExchange exchange) {
+        String userId = exchange.getRequest().getHeaders().getFirst(JwtAuthenticationFilter.USER_ID_HEADER);
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null) {
+            return "ip:unknown";
+        }
+        return "ip:" + (remoteAddress.getAddress() != null
+            ? remoteAddress.getAddress().getHostAddress()
+            : remoteAddress.getHostString());
+    }
+}
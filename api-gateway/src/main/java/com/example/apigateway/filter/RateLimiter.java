@@ -0,0 +1,110 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process token buckets behind {@link RateLimitFilter}, one per route and caller.
+ * <p>
+ * A bucket is a single AtomicLong holding the instant it will be full again: each request
+ * pushes that instant one refill interval further, and a request that would push it more
+ * than a full burst ahead of now is rejected. Taking a token is one CAS and a rejection
+ * writes nothing, so busy callers don't contend with each other, and the map itself is
+ * lock-striped by ConcurrentHashMap.
+ */
+@Component
+public class RateLimiter {
+    
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>(1024);
+    
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        Gauge.builder("gateway.rate-limit.keys", buckets, ConcurrentHashMap::size).register(meterRegistry);
+    }
+    
+    public Decision tryAcquire(String routeId, String caller, RateLimitProperties.Limit limit) {
+        long now = System.nanoTime();
+        String key = routeId + '|' + caller;
+        AtomicLong fullAt = buckets.get(key);
+        if (fullAt == null) {
+            fullAt = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        
+        long interval = NANOS_PER_SECOND / Math.max(1, limit.getReplenishRate());
+        long burst = interval * Math.max(1, limit.getBurstCapacity());
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            long backlog = next - now;
+            if (backlog > burst) {
+                count(routeId, "rejected");
+                return new Decision(false, 0, backlog - burst);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                count(routeId, "allowed");
+                return new Decision(true, (burst - backlog) / interval, 0);
+            }
+        }
+    }
+    
+    /**
+     * Drops buckets that have refilled completely; a full bucket behaves exactly like a
+     * missing one. A request racing with the removal can at worst get one extra token.
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sweep-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+    }
+    
+    private void count(String routeId, String result) {
+        counters.computeIfAbsent(routeId + '|' + result, k -> Counter.builder("gateway.rate-limit.requests")
+            .tag("route", routeId)
+            .tag("result", result)
+            .register(meterRegistry))
+            .increment();
+    }
+    
+    public static final class Decision {
+        
+        private final boolean allowed;
+        private final long remaining;
+        private final long retryAfterNanos;
+        
+        private Decision(boolean allowed, long remaining, long retryAfterNanos) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.retryAfterNanos = retryAfterNanos;
+        }
+        
+        public boolean isAllowed() {
+            return allowed;
+        }
+        
+        public long getRemaining() {
+            return remaining;
+        }
+        
+        // Whole seconds, rounded up, as Retry-After expects
+        public long getRetryAfterSeconds() {
+            return Math.max(1, (retryAfterNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU store behind {@link ResponseCacheFilter}. Bounded both by entry count
+ * and by total body bytes; the least recently read entries go first.
+ * All access is under one lock, but every operation is a map lookup or an unlink, so the
+ * critical sections are far shorter than the upstream calls they save.
+ */
+@Component
+public class ResponseCache {
+    
+    @Autowired
+    private ResponseCacheProperties properties;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    
+    private long totalBytes;
+    
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter coalescedCounter;
+    private Counter evictionCounter;
+    
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("gateway.response.cache.requests").tag("result", "hit").register(meterRegistry);
+        missCounter = Counter.builder("gateway.response.cache.requests").tag("result", "miss").register(meterRegistry);
+        coalescedCounter = Counter.builder("gateway.response.cache.requests").tag("result", "coalesced").register(meterRegistry);
+        evictionCounter = Counter.builder("gateway.response.cache.evictions").register(meterRegistry);
+        Gauge.builder("gateway.response.cache.entries", this, ResponseCache::size).register(meterRegistry);
+        Gauge.builder("gateway.response.cache.bytes", this, ResponseCache::bytes).register(meterRegistry);
+    }
+    
+    public Entry get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isExpired()) {
+                remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+    
+    public void put(String key, Entry entry) {
+        synchronized (entries) {
+            remove(key);
+            entries.put(key, entry);
+            totalBytes += entry.body.length;
+            
+            long maximumBytes = properties.getMaximumSize().toBytes();
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > properties.getMaximumEntries() || totalBytes > maximumBytes) && eldest.hasNext()) {
+                Entry evicted = eldest.next().getValue();
+                eldest.remove();
+                totalBytes -= evicted.body.length;
+                evictionCounter.increment();
+            }
+        }
+    }
+    
+    // Drops every entry of a route, e.g. after a write went through it
+    public void invalidateRoute(String routeId) {
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next().getValue();
+                if (entry.routeId.equals(routeId)) {
+                    iterator.remove();
+                    totalBytes -= entry.body.length;
+                }
+            }
+        }
+    }
+    
+    public void recordHit() {
+        hitCounter.increment();
+    }
+    
+    public void recordMiss() {
+        missCounter.increment();
+    }
+    
+    public void recordCoalesced() {
+        coalescedCounter.increment();
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    public long bytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+    
+    private void remove(String key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            totalBytes -= previous.body.length;
+        }
+    }
+    
+    public static final class Entry {
+        
+        private final String routeId;
+        private final HttpStatus status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final String etag;
+        private final long storedAt;
+        private final long expiresAt;
+        
+        public Entry(String routeId, HttpStatus status, HttpHeaders headers, byte[] body, String etag, long ttlMillis) {
+            this.routeId = routeId;
+            this.status = status;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+            this.etag = etag;
+            this.storedAt = System.currentTimeMillis();
+            this.expiresAt = storedAt + ttlMillis;
+        }
+        
+        public HttpStatus getStatus() {
+            return status;
+        }
+        
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+        
+        public byte[] getBody() {
+            return body;
+        }
+        
+        public String getEtag() {
+            return etag;
+        }
+        
+        public long getAgeSeconds() {
+            return (System.currentTimeMillis() - storedAt) / 1000;
+        }
+        
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.ResponseCacheProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Serves repeated GETs for the routes configured under gateway.cache.routes from memory.
+ * <ul>
+ * <li>Only 200 responses are stored, and never when upstream says no-store, no-cache or
+ * private, or sets a cookie. An upstream max-age / s-maxage shortens the route's TTL.</li>
+ * <li>Every cached response carries an ETag (upstream's, or a hash of the body), and a
+ * matching If-None-Match is answered with 304 without a body.</li>
+ * <li>Concurrent misses for the same key are coalesced: one request goes upstream and the
+ * others wait for its response instead of stampeding the service.</li>
+ * <li>Any other method through a cached route clears that route's entries.</li>
+ * </ul>
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+    
+    public static final int ORDER = -100;
+    
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    
+    private static final Pattern MAX_AGE = Pattern.compile("(?:s-maxage|max-age)\\s*=\\s*(\\d+)");
+    
+    // Describe the connection or the caller, not the content
+    private static final List<String> UNCACHED_HEADERS = Arrays.asList(
+        HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, "Keep-Alive", HttpHeaders.CONTENT_LENGTH,
+        HttpHeaders.DATE, HttpHeaders.AGE, CACHE_STATUS_HEADER, RateLimitFilter.REMAINING_HEADER
+    );
+    
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    
+    // Responses currently being fetched, so concurrent misses can wait for them
+    private final ConcurrentHashMap<String, Mono<ResponseCache.Entry>> inFlight = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private ResponseCacheProperties properties;
+    
+    @Autowired
+    private ResponseCache cache;
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        ResponseCacheProperties.Route rule = properties.getRoutes().get(route.getId());
+        ServerHttpRequest request = exchange.getRequest();
+        if (rule == null || !matches(rule, request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+        
+        HttpMethod method = request.getMethod();
+        if (method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+        if (method != HttpMethod.GET) {
+            // A write may change anything the route returns
+            return chain.filter(exchange).doFinally(signal -> cache.invalidateRoute(route.getId()));
+        }
+        
+        String key = cacheKey(request);
+        ResponseCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            cache.recordHit();
+            return writeCached(exchange, cached, "HIT");
+        }
+        
+        Sinks.One<ResponseCache.Entry> result = Sinks.one();
+        Mono<ResponseCache.Entry> pending = result.asMono();
+        Mono<ResponseCache.Entry> leader = inFlight.putIfAbsent(key, pending);
+        if (leader != null) {
+            cache.recordCoalesced();
+            // If the leader's response turns out not to be cacheable, fetch our own
+            return leader.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(entry -> entry.isPresent()
+                    ? writeCached(exchange, entry.get(), "COALESCED")
+                    : chain.filter(exchange));
+        }
+        
+        // The previous leader may have stored the response between our lookup and putIfAbsent
+        cached = cache.get(key);
+        if (cached != null) {
+            inFlight.remove(key, pending);
+            result.tryEmitValue(cached);
+            cache.recordHit();
+            return writeCached(exchange, cached, "HIT");
+        }
+        
+        cache.recordMiss();
+        CachingResponse response = new CachingResponse(exchange.getResponse(), route.getId(), rule, key, pending, result);
+        return chain.filter(exchange.mutate().response(response).build())
+            .doFinally(signal -> {
+                inFlight.remove(key, pending);
+                // Releases any waiters if nothing was stored (error, cancel, uncacheable response)
+                result.tryEmitEmpty();
+            });
+    }
+    
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+    
+    private boolean matches(ResponseCacheProperties.Route rule, String path) {
+        if (rule.getPaths().isEmpty()) {
+            return true;
+        }
+        for (String pattern : rule.getPaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Compressed and plain variants are cached separately
+    private String cacheKey(ServerHttpRequest request) {
+        String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        String query = request.getURI().getRawQuery();
+        return request.getPath().value() + (query != null ? "?" + query : "") + (gzip ? "|gzip" : "|identity");
+    }
+    
+    private Mono<Void> writeCached(ServerWebExchange exchange, ResponseCache.Entry entry, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(entry.getHeaders());
+        headers.set(HttpHeaders.AGE, String.valueOf(entry.getAgeSeconds()));
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+        
+        if (notModified(exchange.getRequest(), entry.getEtag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(entry.getStatus());
+        headers.setContentLength(entry.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.getBody())));
+    }
+    
+    private boolean notModified(ServerHttpRequest request, String etag) {
+        List<String> candidates = request.getHeaders().getIfNoneMatch();
+        if (candidates.isEmpty() || etag == null) {
+            return false;
+        }
+        String current = stripWeak(etag);
+        for (String candidate : candidates) {
+            if ("*".equals(candidate) || stripWeak(candidate).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // If-None-Match uses weak comparison
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+    
+    // Returns how long a response may be kept, or 0 if it must not be cached
+    private long ttlMillis(ServerHttpResponse response, ResponseCacheProperties.Route rule) {
+        HttpHeaders headers = response.getHeaders();
+        if (response.getStatusCode() != HttpStatus.OK
+                || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || headers.getVary().contains("*")) {
+            return 0;
+        }
+        long ttl = rule.getTtl().toMillis();
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return ttl;
+        }
+        String directives = cacheControl.toLowerCase(Locale.ROOT);
+        if (directives.contains("no-store") || directives.contains("no-cache") || directives.contains("private")) {
+            return 0;
+        }
+        Matcher maxAge = MAX_AGE.matcher(directives);
+        if (maxAge.find()) {
+            ttl = Math.min(ttl, Long.parseLong(maxAge.group(1)) * 1000);
+        }
+        return ttl;
+    }
+    
+    private static String hashEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Buffers the leader's upstream response, stores it if cacheable and hands it to the
+     * requests that were coalesced behind it.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+        
+        private final String routeId;
+        private final ResponseCacheProperties.Route rule;
+        private final String key;
+        private final Mono<ResponseCache.Entry> pending;
+        private final Sinks.One<ResponseCache.Entry> result;
+        
+        private CachingResponse(ServerHttpResponse delegate, String routeId, ResponseCacheProperties.Route rule,
+                                String key, Mono<ResponseCache.Entry> pending, Sinks.One<ResponseCache.Entry> result) {
+            super(delegate);
+            this.routeId = routeId;
+            this.rule = rule;
+            this.key = key;
+            this.pending = pending;
+            this.result = result;
+        }
+        
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long ttl = ttlMillis(getDelegate(), rule);
+            long maximumBodySize = properties.getMaximumBodySize().toBytes();
+            if (ttl <= 0 || getHeaders().getContentLength() > maximumBodySize) {
+                return super.writeWith(body);
+            }
+            
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+                
+                HttpHeaders headers = getHeaders();
+                if (bytes.length <= maximumBodySize) {
+                    if (!StringUtils.hasText(headers.getETag())) {
+                        headers.setETag(hashEtag(bytes));
+                    }
+                    HttpHeaders stored = new HttpHeaders();
+                    headers.forEach((name, values) -> {
+                        if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                            stored.put(name, values);
+                        }
+                    });
+                    ResponseCache.Entry entry = new ResponseCache.Entry(
+                        routeId, HttpStatus.OK, stored, bytes, headers.getETag(), ttl);
+                    cache.put(key, entry);
+                    inFlight.remove(key, pending);
+                    result.tryEmitValue(entry);
+                }
+                headers.set(CACHE_STATUS_HEADER, "MISS");
+                headers.setContentLength(bytes.length);
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+}
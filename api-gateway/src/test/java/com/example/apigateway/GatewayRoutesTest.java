@@ -0,0 +1,88 @@
+package com.example.apigateway;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every route that reaches a service must be one of the configured routes, so it picks up
+ * its timeouts, circuit breaker, bulkhead, rate limit and the protected paths.
+ */
+// The services are registered with the simple discovery client, as Eureka would list them
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.cloud.discovery.client.simple.instances.order-service[0].uri=http://localhost:1",
+    "spring.cloud.discovery.client.simple.instances.payment-service[0].uri=http://localhost:1",
+    "spring.cloud.discovery.client.simple.instances.product-service[0].uri=http://localhost:1"
+})
+@ActiveProfiles("test")
+class GatewayRoutesTest {
+    
+    private static final Set<String> SERVICE_ROUTES = new HashSet<>(Arrays.asList(
+        "user-service", "product-service", "order-service", "payment-service"));
+    
+    @Autowired
+    private RouteLocator routeLocator;
+    
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+    
+    @Autowired
+    private WebTestClient webTestClient;
+    
+    @Test
+    void onlyConfiguredRoutesExist() {
+        List<Route> routes = routeLocator.getRoutes().collectList().block();
+        Set<String> ids = routes.stream().map(Route::getId).collect(Collectors.toSet());
+        
+        Set<String> expected = new HashSet<>(SERVICE_ROUTES);
+        expected.add("internal-events");
+        assertEquals(expected, ids);
+    }
+    
+    @Test
+    void serviceRoutesCarryTheirResilienceSettings() {
+        for (Route route : routeLocator.getRoutes().collectList().block()) {
+            if (!SERVICE_ROUTES.contains(route.getId())) {
+                continue;
+            }
+            assertNotNull(route.getMetadata().get("response-timeout"), route.getId() + " has no response timeout");
+            assertNotNull(route.getMetadata().get("connect-timeout"), route.getId() + " has no connect timeout");
+            assertTrue(route.getFilters().stream().anyMatch(filter -> filter.toString().contains("CircuitBreaker")),
+                route.getId() + " has no circuit breaker");
+            assertTrue(bulkheadRegistry.find(route.getId()).isPresent(), route.getId() + " has no bulkhead");
+        }
+    }
+    
+    @Test
+    void servicesAreNotReachableUnderTheirServiceName() {
+        webTestClient.get().uri("/order-service/api/orders").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/payment-service/api/payments/1").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/product-service/api/products/search?q=phone").exchange().expectStatus().isNotFound();
+    }
+    
+    @Test
+    void protectedPathsNeedAToken() {
+        webTestClient.get().uri("/api/orders").exchange().expectStatus().isUnauthorized();
+        webTestClient.get().uri("/api/payments/1").exchange().expectStatus().isUnauthorized();
+    }
+    
+    @Test
+    void internalEventsAreRefused() {
+        webTestClient.post().uri("/api/events").exchange().expectStatus().isNotFound();
+    }
+}
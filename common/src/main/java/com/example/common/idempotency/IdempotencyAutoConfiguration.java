@@ -0,0 +1,22 @@
+package com.example.common.idempotency;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adds idempotent request handling to services that set idempotency.enabled=true. The package
+ * is registered as an auto-configuration package, so its entity and repository are picked up
+ * next to the service's own; that has to happen before the JPA auto-configuration runs.
+ */
+@Configuration
+@AutoConfigurationPackage
+@AutoConfigureBefore({HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class})
+@ConditionalOnProperty(name = "idempotency.enabled", havingValue = "true")
+@ComponentScan
+public class IdempotencyAutoConfiguration {
+}
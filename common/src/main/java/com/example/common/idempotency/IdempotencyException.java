@@ -0,0 +1,21 @@
+package com.example.common.idempotency;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a request with an Idempotency-Key can neither run nor be replayed: the key is
+ * still in use by another attempt (409) or was first used for a different request (422).
+ */
+public class IdempotencyException extends RuntimeException {
+    
+    private final HttpStatus status;
+    
+    public IdempotencyException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+    
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes POSTs to the paths in idempotency.paths safe to retry. A request carrying an
+ * Idempotency-Key header runs once; retries with the same key, from the same user, get the
+ * first response back with an Idempotent-Replayed header instead of running again.
+ * Requests without the header are not affected.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    
+    @Autowired
+    private IdempotencyStore store;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${idempotency.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${idempotency.paths:}")
+    private List<String> paths;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"POST".equals(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // Keys are scoped per caller; without one, every anonymous caller would share a key space
+        if (request.getHeader(USER_ID_HEADER) == null) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotent requests need an authenticated caller");
+            return;
+        }
+        
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String requestHash = sha256(cachedRequest.body);
+        ContentCachingResponseWrapper capturedResponse = new ContentCachingResponseWrapper(response);
+        boolean[] executed = {false};
+        
+        IdempotentResponse result;
+        try {
+            result = store.execute(scope(request, key), requestHash, () -> {
+                executed[0] = true;
+                chain.doFilter(cachedRequest, capturedResponse);
+                return new IdempotentResponse(requestHash, capturedResponse.getStatus(),
+                    capturedResponse.getContentType(), capturedResponse.getContentAsByteArray());
+            });
+        } catch (IdempotencyException e) {
+            writeError(response, e.getStatus(), e.getMessage());
+            return;
+        }
+        
+        if (executed[0]) {
+            capturedResponse.copyBodyToResponse();
+        } else {
+            replay(response, result);
+        }
+    }
+    
+    // Keys are only unique per caller and endpoint, so two users can't collide on a key
+    private String scope(HttpServletRequest request, String key) {
+        return request.getHeader(USER_ID_HEADER) + ':' + request.getRequestURI() + ':' + key;
+    }
+    
+    private void replay(HttpServletResponse response, IdempotentResponse result) throws IOException {
+        response.setStatus(result.getStatus());
+        if (result.getContentType() != null) {
+            response.setContentType(result.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(result.getBody().length);
+        response.getOutputStream().write(result.getBody());
+    }
+    
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message));
+    }
+    
+    private static String sha256(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    // Reads the body up front so it can be hashed and still be read by the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final byte[] body;
+        
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+                
+                @Override
+                public int read() {
+                    return input.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
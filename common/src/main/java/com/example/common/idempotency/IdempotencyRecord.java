@@ -0,0 +1,136 @@
+package com.example.common.idempotency;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A claimed Idempotency-Key and, once its request finished, the response to replay.
+ * A row without a status is still being executed by some instance.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at")
+})
+public class IdempotencyRecord implements Persistable<String> {
+    
+    @Id
+    @Column(name = "scoped_key", length = 400)
+    private String scopedKey;
+    
+    // SHA-256 of the request body, so a key reused for a different request is caught
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(name = "response_status")
+    private Integer responseStatus;
+    
+    @Column(name = "content_type")
+    private String contentType;
+    
+    @Lob
+    @Column(name = "response_body")
+    private byte[] responseBody;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Keys are assigned, so tell Spring Data a fresh record is an INSERT rather than a merge
+    @Transient
+    private boolean newRecord = true;
+    
+    // Constructors
+    public IdempotencyRecord() {}
+    
+    public IdempotencyRecord(String scopedKey, String requestHash, LocalDateTime expiresAt) {
+        this.scopedKey = scopedKey;
+        this.requestHash = requestHash;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+    
+    @Override
+    public String getId() {
+        return scopedKey;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.newRecord = false;
+    }
+    
+    public boolean isCompleted() {
+        return responseStatus != null;
+    }
+    
+    public IdempotentResponse toResponse() {
+        return new IdempotentResponse(requestHash, responseStatus, contentType, responseBody);
+    }
+    
+    // Getters and Setters
+    public String getScopedKey() {
+        return scopedKey;
+    }
+    
+    public void setScopedKey(String scopedKey) {
+        this.scopedKey = scopedKey;
+    }
+    
+    public String getRequestHash() {
+        return requestHash;
+    }
+    
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+    
+    public Integer getResponseStatus() {
+        return responseStatus;
+    }
+    
+    public void setResponseStatus(Integer responseStatus) {
+        this.responseStatus = responseStatus;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+    
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+    
+    public void setResponseBody(byte[] responseBody) {
+        this.responseBody = responseBody;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
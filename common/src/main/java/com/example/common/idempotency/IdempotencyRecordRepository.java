@@ -0,0 +1,39 @@
+package com.example.common.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    // Reclaims a key whose record has expired, whether it completed or was abandoned mid-request
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.responseStatus = NULL, " +
+           "r.contentType = NULL, r.responseBody = NULL, r.createdAt = :now, r.expiresAt = :expiresAt " +
+           "WHERE r.scopedKey = :key AND r.expiresAt < :now")
+    int takeOver(@Param("key") String key, @Param("requestHash") String requestHash,
+                 @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.contentType = :contentType, " +
+           "r.responseBody = :body, r.expiresAt = :expiresAt WHERE r.scopedKey = :key")
+    int complete(@Param("key") String key, @Param("status") Integer status, @Param("contentType") String contentType,
+                 @Param("body") byte[] body, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.scopedKey = :key")
+    int release(@Param("key") String key);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,218 @@
+package com.example.common.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs each idempotent request at most once per key and replays its response to duplicates.
+ * <ul>
+ * <li>Recently completed keys are answered from a bounded in-memory cache.</li>
+ * <li>A duplicate arriving while the first request is still running on this instance waits
+ * for that request's response instead of running again.</li>
+ * <li>Otherwise the key is claimed with an INSERT into idempotency_keys, which also stops two
+ * instances from running the same key; a key claimed elsewhere is replayed from its row, or
+ * answered with 409 while that request is still running.</li>
+ * </ul>
+ * Responses below 500 are kept for idempotency.ttl. Server errors are not kept, so a retry
+ * after one runs the request again. A claim left behind by a crashed request expires after
+ * idempotency.pending-timeout.
+ */
+@Component
+public class IdempotencyStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    
+    @Autowired
+    private IdempotencyRecordRepository repository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${idempotency.ttl:24h}")
+    private Duration ttl;
+    
+    @Value("${idempotency.pending-timeout:1m}")
+    private Duration pendingTimeout;
+    
+    @Value("${idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+    
+    @Value("${idempotency.cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    private Cache<String, IdempotentResponse> completed;
+    
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+    
+    private Counter executedCounter;
+    private Counter cacheReplayCounter;
+    private Counter databaseReplayCounter;
+    private Counter joinedCounter;
+    private Counter rejectedCounter;
+    
+    @FunctionalInterface
+    public interface Action {
+        IdempotentResponse run() throws IOException, ServletException;
+    }
+    
+    @PostConstruct
+    public void init() {
+        completed = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .build();
+        
+        executedCounter = counter("executed");
+        cacheReplayCounter = counter("replayed-memory");
+        databaseReplayCounter = counter("replayed-database");
+        joinedCounter = counter("joined");
+        rejectedCounter = counter("rejected");
+        Gauge.builder("idempotency.cache.size", completed, Cache::estimatedSize).register(meterRegistry);
+        Gauge.builder("idempotency.in-flight", inFlight, Map::size).register(meterRegistry);
+    }
+    
+    /**
+     * Returns the response for this key: the one produced by running the action now, or the
+     * one an earlier request with the same key produced.
+     */
+    public IdempotentResponse execute(String key, String requestHash, Action action) throws IOException, ServletException {
+        IdempotentResponse done = completed.getIfPresent(key);
+        if (done != null) {
+            cacheReplayCounter.increment();
+            return matching(done, requestHash);
+        }
+        
+        CompletableFuture<IdempotentResponse> own = new CompletableFuture<>();
+        CompletableFuture<IdempotentResponse> first = inFlight.putIfAbsent(key, own);
+        if (first != null) {
+            joinedCounter.increment();
+            return matching(await(first), requestHash);
+        }
+        
+        try {
+            IdempotentResponse response = executeOnce(key, requestHash, action);
+            own.complete(response);
+            return response;
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${idempotency.purge-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            logger.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+    
+    private IdempotentResponse executeOnce(String key, String requestHash, Action action) throws IOException, ServletException {
+        Optional<IdempotencyRecord> existing = claim(key, requestHash);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (!record.isCompleted()) {
+                throw reject(HttpStatus.CONFLICT, "A request with this Idempotency-Key is already in progress");
+            }
+            IdempotentResponse response = record.toResponse();
+            completed.put(key, response);
+            databaseReplayCounter.increment();
+            return matching(response, requestHash);
+        }
+        
+        executedCounter.increment();
+        IdempotentResponse response;
+        try {
+            response = action.run();
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            repository.release(key);
+            throw e;
+        }
+        
+        if (response.getStatus() >= 500) {
+            repository.release(key);
+            return response;
+        }
+        repository.complete(key, response.getStatus(), response.getContentType(), response.getBody(),
+            LocalDateTime.now().plus(ttl));
+        completed.put(key, response);
+        return response;
+    }
+    
+    // Empty when the key is now ours to run; otherwise the record of whoever holds it
+    private Optional<IdempotencyRecord> claim(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            repository.saveAndFlush(new IdempotencyRecord(key, requestHash, now.plus(pendingTimeout)));
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            if (repository.takeOver(key, requestHash, now, now.plus(pendingTimeout)) == 1) {
+                return Optional.empty();
+            }
+            IdempotencyRecord record = repository.findById(key)
+                .orElseThrow(() -> reject(HttpStatus.CONFLICT, "A request with this Idempotency-Key is already in progress"));
+            return Optional.of(record);
+        }
+    }
+    
+    private IdempotentResponse await(CompletableFuture<IdempotentResponse> first) {
+        try {
+            return first.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw reject(HttpStatus.CONFLICT, "A request with this Idempotency-Key is already in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(HttpStatus.CONFLICT, "A request with this Idempotency-Key is already in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IdempotencyException) {
+                throw (IdempotencyException) e.getCause();
+            }
+            // The first attempt failed without a response; its key is free again for a retry
+            throw reject(HttpStatus.CONFLICT, "The first request with this Idempotency-Key failed, please retry");
+        }
+    }
+    
+    private IdempotentResponse matching(IdempotentResponse response, String requestHash) {
+        if (!response.getRequestHash().equals(requestHash)) {
+            throw reject(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+        }
+        return response;
+    }
+    
+    private IdempotencyException reject(HttpStatus status, String message) {
+        rejectedCounter.increment();
+        return new IdempotencyException(status, message);
+    }
+    
+    private Counter counter(String result) {
+        return Counter.builder("idempotency.requests").tag("result", result).register(meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.common.idempotency;
+
+// The finished response of an idempotent request, as replayed to its duplicates
+public class IdempotentResponse {
+    
+    private final String requestHash;
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+    
+    public IdempotentResponse(String requestHash, int status, String contentType, byte[] body) {
+        this.requestHash = requestHash;
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body == null ? new byte[0] : body;
+    }
+    
+    public String getRequestHash() {
+        return requestHash;
+    }
+    
+    public int getStatus() {
+        return status;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public byte[] getBody() {
+        return body;
+    }
+}
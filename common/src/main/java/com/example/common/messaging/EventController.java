@@ -0,0 +1,55 @@
+package com.example.common.messaging;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Receives event batches from the outbox relays of other services. This path is for
+ * service-to-service traffic only: the gateway refuses it, and since a service can also be
+ * reached directly, every batch must carry messaging.secret in the X-Event-Secret header.
+ * The relay adds it to each request; anything without it is answered with 401 and never
+ * reaches a handler.
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+    
+    public static final String SECRET_HEADER = "X-Event-Secret";
+    
+    @Autowired
+    private EventDispatcher eventDispatcher;
+    
+    @Value("${messaging.secret:}")
+    private String secret;
+    
+    private byte[] secretBytes;
+    
+    @PostConstruct
+    public void init() {
+        if (secret.isBlank()) {
+            throw new IllegalStateException("messaging.secret must be set so that only other services can deliver events");
+        }
+        secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @PostMapping
+    public ResponseEntity<EventDeliveryResult> receive(@RequestHeader(value = SECRET_HEADER, required = false) String presented,
+                                                       @RequestBody List<EventMessage> events) {
+        if (presented == null || !MessageDigest.isEqual(secretBytes, presented.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(new EventDeliveryResult(eventDispatcher.dispatch(events)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.common.messaging;
+
+import java.util.List;
+
+// Ids of the delivered events the receiver has processed, or had already processed before
+public class EventDeliveryResult {
+    
+    private List<String> processedIds;
+    
+    // Constructors
+    public EventDeliveryResult() {}
+    
+    public EventDeliveryResult(List<String> processedIds) {
+        this.processedIds = processedIds;
+    }
+    
+    // Getters and Setters
+    public List<String> getProcessedIds() {
+        return processedIds;
+    }
+    
+    public void setProcessedIds(List<String> processedIds) {
+        this.processedIds = processedIds;
+    }
+}
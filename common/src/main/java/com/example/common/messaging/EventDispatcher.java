@@ -0,0 +1,114 @@
+package com.example.common.messaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hands delivered events to their {@link EventHandler}, each event in its own transaction
+ * that also records it in processed_events. An event already recorded there is a redelivery
+ * and is confirmed without running the handler again.
+ * <p>
+ * When an event fails, later events of the same aggregate in the batch are left unprocessed
+ * too, so the sender retries them in their original order.
+ */
+@Component
+public class EventDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EventDispatcher.class);
+    
+    @Autowired
+    private List<EventHandler> eventHandlers;
+    
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${inbox.retention:7d}")
+    private Duration retention;
+    
+    private final Map<String, EventHandler> handlersByType = new HashMap<>();
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (EventHandler handler : eventHandlers) {
+            for (String eventType : handler.getEventTypes()) {
+                EventHandler previous = handlersByType.put(eventType, handler);
+                if (previous != null) {
+                    throw new IllegalStateException("Two handlers for " + eventType + ": " + previous + " and " + handler);
+                }
+            }
+        }
+    }
+    
+    // Returns the ids of the events that are now processed, including earlier duplicates
+    public List<String> dispatch(List<EventMessage> events) {
+        List<String> processed = new ArrayList<>(events.size());
+        Set<String> failedAggregates = new HashSet<>();
+        for (EventMessage event : events) {
+            String aggregate = event.getAggregateType() + ':' + event.getAggregateId();
+            if (failedAggregates.contains(aggregate)) {
+                continue;
+            }
+            try {
+                process(event);
+                processed.add(event.getId());
+            } catch (RuntimeException e) {
+                failedAggregates.add(aggregate);
+                meterRegistry.counter("inbox.events", "type", event.getType(), "result", "failed").increment();
+                logger.warn("Event {} {} for {} failed, it will be redelivered", event.getType(), event.getId(), aggregate, e);
+            }
+        }
+        return processed;
+    }
+    
+    @Scheduled(fixedDelayString = "${inbox.purge-ms:3600000}")
+    @Transactional
+    public void purgeProcessed() {
+        int purged = processedEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            logger.debug("Purged {} processed event ids", purged);
+        }
+    }
+    
+    private void process(EventMessage event) {
+        EventHandler handler = handlersByType.get(event.getType());
+        if (handler == null) {
+            meterRegistry.counter("inbox.events", "type", event.getType(), "result", "ignored").increment();
+            return;
+        }
+        String result = transactionTemplate.execute(status -> {
+            if (processedEventRepository.existsById(event.getId())) {
+                return "duplicate";
+            }
+            processedEventRepository.save(new ProcessedEvent(event.getId(), event.getType()));
+            handler.handle(event);
+            return "processed";
+        });
+        meterRegistry.counter("inbox.events", "type", event.getType(), "result", result).increment();
+    }
+}
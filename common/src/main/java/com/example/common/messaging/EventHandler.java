@@ -0,0 +1,16 @@
+package com.example.common.messaging;
+
+import java.util.Set;
+
+/**
+ * Reacts to events delivered to this service. {@link EventDispatcher} calls the handler inside
+ * a transaction that also records the event as processed, so a handler runs once per event
+ * even though events may be delivered more than once; events it appends to the
+ * {@link Outbox} commit together with its own changes.
+ */
+public interface EventHandler {
+    
+    Set<String> getEventTypes();
+    
+    void handle(EventMessage event);
+}
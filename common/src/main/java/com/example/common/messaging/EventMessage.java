@@ -0,0 +1,78 @@
+package com.example.common.messaging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+
+// One event as it travels between services; the payload is the event's own JSON body
+public class EventMessage {
+    
+    private String id;
+    private String type;
+    private String aggregateType;
+    private String aggregateId;
+    private LocalDateTime occurredAt;
+    private JsonNode payload;
+    
+    // Constructors
+    public EventMessage() {}
+    
+    public EventMessage(String id, String type, String aggregateType, String aggregateId,
+                        LocalDateTime occurredAt, JsonNode payload) {
+        this.id = id;
+        this.type = type;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.occurredAt = occurredAt;
+        this.payload = payload;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public String getAggregateType() {
+        return aggregateType;
+    }
+    
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+    
+    public String getAggregateId() {
+        return aggregateId;
+    }
+    
+    public void setAggregateId(String aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+    
+    public JsonNode getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(JsonNode payload) {
+        this.payload = payload;
+    }
+}
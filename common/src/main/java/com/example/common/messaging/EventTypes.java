@@ -0,0 +1,20 @@
+package com.example.common.messaging;
+
+// Message names shared by the services; a subscriber sees the same names in outbox.routes.
+// Commands ask one service to do something for the checkout saga, events report what it did
+public final class EventTypes {
+    
+    public static final String RESERVE_STOCK = "ReserveStock";
+    public static final String RELEASE_STOCK = "ReleaseStock";
+    public static final String AUTHORIZE_PAYMENT = "AuthorizePayment";
+    public static final String VOID_PAYMENT = "VoidPayment";
+    
+    public static final String STOCK_RESERVED = "StockReserved";
+    public static final String STOCK_RESERVATION_FAILED = "StockReservationFailed";
+    public static final String STOCK_RELEASED = "StockReleased";
+    public static final String PAYMENT_AUTHORIZED = "PaymentAuthorized";
+    public static final String PAYMENT_DECLINED = "PaymentDeclined";
+    public static final String PAYMENT_VOIDED = "PaymentVoided";
+    
+    private EventTypes() {}
+}
@@ -0,0 +1,21 @@
+package com.example.common.messaging;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adds the transactional outbox, its relay and the /api/events inbox to any service that
+ * depends on this module. The service supplies the {@link EventHandler}s and outbox.routes.
+ * Like {@code IdempotencyAutoConfiguration}, the package is registered ahead of the JPA
+ * auto-configuration so that the outbox and inbox tables are mapped.
+ */
+@Configuration
+@AutoConfigurationPackage
+@AutoConfigureBefore({HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class})
+@ComponentScan
+public class MessagingAutoConfiguration {
+}
@@ -0,0 +1,35 @@
+package com.example.common.messaging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class MessagingConfig {
+    
+    @Value("${outbox.relay.connect-timeout:1s}")
+    private Duration connectTimeout;
+    
+    @Value("${outbox.relay.read-timeout:5s}")
+    private Duration readTimeout;
+    
+    @Value("${messaging.secret:}")
+    private String secret;
+    
+    // Resolves http://<service-name>/ through Eureka, spreading batches over the instances;
+    // every request carries the shared secret the receiving EventController checks
+    @Bean
+    @LoadBalanced
+    public RestTemplate eventRestTemplate(RestTemplateBuilder builder) {
+        return builder
+            .setConnectTimeout(connectTimeout)
+            .setReadTimeout(readTimeout)
+            .defaultHeader(EventController.SECRET_HEADER, secret)
+            .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.common.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records events for the {@link OutboxRelay} to deliver. Appending must happen inside the
+ * transaction that makes the change the event describes, so the event exists if and only if
+ * that change was committed; nothing is sent over the network here.
+ */
+@Component
+public class Outbox {
+    
+    @Autowired
+    private OutboxEventRepository repository;
+    
+    @Autowired
+    private OutboxProperties properties;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String eventType, String aggregateType, Object aggregateId, Object payload) {
+        List<String> destinations = properties.getRoutes().getOrDefault(eventType, List.of());
+        if (destinations.isEmpty()) {
+            return;
+        }
+        String eventId = UUID.randomUUID().toString();
+        String json = toJson(payload);
+        for (String destination : destinations) {
+            repository.save(new OutboxEvent(eventId, destination, eventType, aggregateType, String.valueOf(aggregateId), json));
+        }
+    }
+    
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event payload can't be written as JSON", e);
+        }
+    }
+}
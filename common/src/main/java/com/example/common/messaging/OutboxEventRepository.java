@@ -0,0 +1,50 @@
+package com.example.common.messaging;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Events due for a destination, only the oldest pending one of each aggregate so that a
+    // later event can never overtake an earlier one that is still being retried. Dead letters
+    // are skipped and no longer hold back the events after them
+    @Query("SELECT e FROM OutboxEvent e WHERE e.destination = :destination AND e.nextAttemptAt <= :now " +
+           "AND e.status = com.example.common.messaging.OutboxEventStatus.PENDING " +
+           "AND NOT EXISTS (SELECT p.id FROM OutboxEvent p WHERE p.destination = e.destination " +
+           "AND p.aggregateType = e.aggregateType AND p.aggregateId = e.aggregateId AND p.id < e.id " +
+           "AND p.status = com.example.common.messaging.OutboxEventStatus.PENDING) " +
+           "ORDER BY e.id")
+    List<OutboxEvent> findDeliverable(@Param("destination") String destination, @Param("now") LocalDateTime now,
+                                      Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.failedAttempts = e.failedAttempts + :failed, " +
+           "e.nextAttemptAt = :nextAttemptAt WHERE e.id IN :ids")
+    int scheduleRetry(@Param("ids") Collection<Long> ids, @Param("failed") int failed,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, " +
+           "e.status = com.example.common.messaging.OutboxEventStatus.DEAD_LETTER, e.lastError = :error " +
+           "WHERE e.id IN :ids")
+    int deadLetter(@Param("ids") Collection<Long> ids, @Param("error") String error);
+    
+    long countByStatus(OutboxEventStatus status);
+}
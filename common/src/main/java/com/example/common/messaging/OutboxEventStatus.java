@@ -0,0 +1,7 @@
+package com.example.common.messaging;
+
+// DEAD_LETTER events are kept for inspection but never sent again and no longer hold back their aggregate
+public enum OutboxEventStatus {
+    PENDING,
+    DEAD_LETTER
+}
@@ -0,0 +1,36 @@
+package com.example.common.messaging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Who subscribes to which event, keyed by event type, e.g.
+ * outbox.routes.OrderPlaced=product-service,payment-service. Destinations are service
+ * names as registered in Eureka. Events without a route are not recorded at all.
+ */
+@Component
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+    
+    private Map<String, List<String>> routes = new LinkedHashMap<>();
+    
+    public Set<String> getDestinations() {
+        Set<String> destinations = new LinkedHashSet<>();
+        routes.values().forEach(destinations::addAll);
+        return destinations;
+    }
+    
+    public Map<String, List<String>> getRoutes() {
+        return routes;
+    }
+    
+    public void setRoutes(Map<String, List<String>> routes) {
+        this.routes = routes;
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.common.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Delivers outbox events to their subscribers in the background. Every outbox.relay.interval-ms
+ * the relay sends each destination its due events in batches of up to outbox.relay.batch-size,
+ * as one POST to /api/events on an instance picked through Eureka. Events the subscriber
+ * confirms are deleted; the rest are retried with exponential backoff.
+ * <p>
+ * The relay runs on its own scheduler, one thread per destination, rather than on Spring's
+ * single shared scheduling thread: a slow or unreachable subscriber then holds up neither the
+ * other destinations nor the service's other scheduled jobs, and those can't delay delivery.
+ * <p>
+ * Delivery is at least once: a batch whose reply got lost is sent again, and subscribers
+ * drop events they have already processed. Events of one aggregate reach each subscriber in
+ * the order they were recorded, since a batch never carries an event while an older one of
+ * the same aggregate is still pending for that destination.
+ * <p>
+ * An event is moved to {@link OutboxEventStatus#DEAD_LETTER} when it can never be delivered:
+ * its payload can't be read, the subscriber refuses it outright (400, 413, 415 or 422), or
+ * the subscriber took it outbox.relay.max-attempts times without managing to process it.
+ * That frees the events queued behind it for the same aggregate. A subscriber that can't be
+ * reached at all is a problem with the subscriber, not the event, so its events are retried
+ * until it is back. Dead letters are logged at error level and counted in
+ * outbox.relay.dead-lettered, and the outbox.dead-letter gauge shows how many are kept.
+ */
+@Component
+public class OutboxRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    // Beyond this many doublings the backoff is at its maximum anyway
+    private static final int MAX_BACKOFF_DOUBLINGS = 20;
+    
+    // Answers that mean the request itself is wrong, so sending it again can't help
+    private static final Set<HttpStatus> REFUSED = EnumSet.of(HttpStatus.BAD_REQUEST, HttpStatus.PAYLOAD_TOO_LARGE,
+        HttpStatus.UNSUPPORTED_MEDIA_TYPE, HttpStatus.UNPROCESSABLE_ENTITY);
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    @Autowired
+    private OutboxEventRepository repository;
+    
+    @Autowired
+    private OutboxProperties properties;
+    
+    @Autowired
+    private RestTemplate eventRestTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${outbox.relay.initial-backoff:500ms}")
+    private Duration initialBackoff;
+    
+    @Value("${outbox.relay.max-backoff:1m}")
+    private Duration maxBackoff;
+    
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${outbox.relay.interval-ms:100}")
+    private long intervalMillis;
+    
+    private ThreadPoolTaskScheduler scheduler;
+    
+    @PostConstruct
+    public void init() {
+        Gauge.builder("outbox.pending", repository, r -> r.countByStatus(OutboxEventStatus.PENDING))
+            .description("Events recorded but not yet delivered, counted once per destination")
+            .register(meterRegistry);
+        Gauge.builder("outbox.dead-letter", repository, r -> r.countByStatus(OutboxEventStatus.DEAD_LETTER))
+            .description("Events given up on, kept for inspection")
+            .register(meterRegistry);
+    }
+    
+    // Started once the service is up, like Spring's own scheduled jobs
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Set<String> destinations = properties.getDestinations();
+        if (!enabled || destinations.isEmpty()) {
+            return;
+        }
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(destinations.size());
+        scheduler.setThreadNamePrefix("outbox-relay-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        scheduler.initialize();
+        for (String destination : destinations) {
+            scheduler.scheduleWithFixedDelay(() -> relay(destination), Duration.ofMillis(intervalMillis));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+    
+    // One pass over every destination, as the scheduler makes them
+    public void relay() {
+        properties.getDestinations().forEach(this::relay);
+    }
+    
+    private void relay(String destination) {
+        try {
+            while (relayBatch(destination)) {
+                // A full batch went through, so more may be waiting
+            }
+        } catch (RuntimeException e) {
+            logger.error("Relaying events to {} failed", destination, e);
+        }
+    }
+    
+    // Sends one batch; true if it was full and every event in it was delivered
+    private boolean relayBatch(String destination) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = repository.findDeliverable(destination, now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return false;
+        }
+        
+        Map<OutboxEvent, String> deadLetters = new LinkedHashMap<>();
+        List<OutboxEvent> sendable = new ArrayList<>(batch.size());
+        List<EventMessage> messages = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            try {
+                messages.add(toMessage(event));
+                sendable.add(event);
+            } catch (JsonProcessingException e) {
+                deadLetters.put(event, "Unreadable payload: " + e.getOriginalMessage());
+            }
+        }
+        
+        Delivery delivery = send(destination, messages);
+        if (delivery.refusal != null && sendable.size() > 1) {
+            // One bad event gets the whole batch refused; send them one by one to find it. A batch
+            // holds at most one event per aggregate, so this can't reorder an aggregate's events
+            Set<String> processedIds = new HashSet<>();
+            boolean received = true;
+            for (int i = 0; i < sendable.size(); i++) {
+                Delivery single = send(destination, List.of(messages.get(i)));
+                processedIds.addAll(single.processedIds);
+                received &= single.received;
+                if (single.refusal != null) {
+                    deadLetters.put(sendable.get(i), single.refusal);
+                }
+            }
+            delivery = new Delivery(received);
+            delivery.processedIds.addAll(processedIds);
+        } else if (delivery.refusal != null) {
+            deadLetters.put(sendable.get(0), delivery.refusal);
+        }
+        
+        List<Long> delivered = new ArrayList<>();
+        Map<Integer, List<Long>> failedByAttempts = new TreeMap<>();
+        for (OutboxEvent event : sendable) {
+            if (deadLetters.containsKey(event)) {
+                continue;
+            }
+            if (delivery.processedIds.contains(event.getEventId())) {
+                delivered.add(event.getId());
+            } else if (delivery.received && event.getFailedAttempts() + 1 >= maxAttempts) {
+                deadLetters.put(event, "Not processed after " + maxAttempts + " attempts");
+            } else {
+                failedByAttempts.computeIfAbsent(event.getAttempts() + 1, attempts -> new ArrayList<>()).add(event.getId());
+            }
+        }
+        
+        if (!delivered.isEmpty()) {
+            repository.deleteByIds(delivered);
+            meterRegistry.counter("outbox.relay.delivered", "destination", destination).increment(delivered.size());
+        }
+        int failed = delivery.received ? 1 : 0;
+        failedByAttempts.forEach((attempts, ids) -> {
+            repository.scheduleRetry(ids, failed, now.plus(backoff(attempts)));
+            meterRegistry.counter("outbox.relay.retried", "destination", destination).increment(ids.size());
+        });
+        deadLetters.forEach((event, reason) -> deadLetter(destination, event, reason));
+        return failedByAttempts.isEmpty() && deadLetters.isEmpty() && batch.size() == batchSize;
+    }
+    
+    private void deadLetter(String destination, OutboxEvent event, String reason) {
+        String error = reason.length() > MAX_ERROR_LENGTH ? reason.substring(0, MAX_ERROR_LENGTH) : reason;
+        repository.deadLetter(List.of(event.getId()), error);
+        meterRegistry.counter("outbox.relay.dead-lettered", "destination", destination).increment();
+        logger.error("Giving up on event {} {} for {}:{} to {}, moved to dead letter: {}", event.getEventType(),
+            event.getEventId(), event.getAggregateType(), event.getAggregateId(), destination, error);
+    }
+    
+    private Delivery send(String destination, List<EventMessage> messages) {
+        if (messages.isEmpty()) {
+            return new Delivery(false);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            EventDeliveryResult result = eventRestTemplate.postForObject(
+                "http://" + destination + "/api/events", messages, EventDeliveryResult.class);
+            Delivery delivery = new Delivery(true);
+            if (result != null && result.getProcessedIds() != null) {
+                delivery.processedIds.addAll(result.getProcessedIds());
+            }
+            return delivery;
+        } catch (HttpClientErrorException e) {
+            if (REFUSED.contains(e.getStatusCode())) {
+                Delivery delivery = new Delivery(true);
+                delivery.refusal = destination + " refused the event with " + e.getRawStatusCode() + ": "
+                    + e.getResponseBodyAsString();
+                return delivery;
+            }
+            logger.warn("Could not deliver {} events to {}: {}", messages.size(), destination, e.getMessage());
+            return new Delivery(false);
+        } catch (RuntimeException e) {
+            // Includes having no instance of the destination registered at the moment
+            logger.warn("Could not deliver {} events to {}: {}", messages.size(), destination, e.getMessage());
+            return new Delivery(false);
+        } finally {
+            sample.stop(Timer.builder("outbox.relay.send")
+                .tag("destination", destination)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+        }
+    }
+    
+    private EventMessage toMessage(OutboxEvent event) throws JsonProcessingException {
+        return new EventMessage(event.getEventId(), event.getEventType(), event.getAggregateType(),
+            event.getAggregateId(), event.getCreatedAt(), objectMapper.readTree(event.getPayload()));
+    }
+    
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, MAX_BACKOFF_DOUBLINGS));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+    
+    // What came of one POST to a destination
+    private static final class Delivery {
+        
+        // Whether the destination answered, so events it didn't process failed there rather than on the way
+        private final boolean received;
+        private final Set<String> processedIds = new HashSet<>();
+        private String refusal;
+        
+        private Delivery(boolean received) {
+            this.received = received;
+        }
+    }
+}
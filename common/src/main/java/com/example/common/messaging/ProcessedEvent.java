@@ -0,0 +1,78 @@
+package com.example.common.messaging;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// An event this service has already handled, kept so that redeliveries can be dropped
+@Entity
+@Table(name = "processed_events", indexes = {
+    @Index(name = "idx_processed_events_processed", columnList = "processed_at")
+})
+public class ProcessedEvent implements Persistable<String> {
+    
+    @Id
+    @Column(name = "event_id", length = 36)
+    private String eventId;
+    
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+    
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+    
+    // Ids are assigned, so tell Spring Data a fresh record is an INSERT rather than a merge
+    @Transient
+    private boolean newRecord = true;
+    
+    // Constructors
+    public ProcessedEvent() {}
+    
+    public ProcessedEvent(String eventId, String eventType) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.processedAt = LocalDateTime.now();
+    }
+    
+    @Override
+    public String getId() {
+        return eventId;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.newRecord = false;
+    }
+    
+    // Getters and Setters
+    public String getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.common.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = IdempotencyFilterTest.TestApplication.class, properties = {
+    "idempotency.enabled=true",
+    "idempotency.paths=/test/orders",
+    "idempotency.wait-timeout=10s",
+    "spring.datasource.url=jdbc:h2:mem:idempotencydb;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyFilterTest {
+    
+    private static final String USER = "7";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private IdempotencyStore store;
+    
+    @Autowired
+    private IdempotencyRecordRepository repository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private TestOrderController controller;
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    
+    private String key;
+    
+    @BeforeEach
+    void setUp() {
+        key = UUID.randomUUID().toString();
+        controller.reset();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        controller.release.countDown();
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void retryIsReplayedFromMemory() throws Exception {
+        String first = place(key, "{\"item\": \"book\"}")
+            .andExpect(status().isCreated())
+            .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+            .andReturn().getResponse().getContentAsString();
+        double replayedBefore = count("replayed-memory");
+        
+        place(key, "{\"item\": \"book\"}")
+            .andExpect(status().isCreated())
+            .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+            .andExpect(content().string(first));
+        
+        assertEquals(1, controller.runs.get());
+        assertEquals(replayedBefore + 1, count("replayed-memory"));
+    }
+    
+    @Test
+    void retryIsReplayedFromTheTableOnceMemoryHasForgottenIt() throws Exception {
+        String first = place(key, "{\"item\": \"book\"}")
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        // As if the retry reached another instance, or this one restarted
+        completedCache().invalidateAll();
+        double replayedBefore = count("replayed-database");
+        
+        place(key, "{\"item\": \"book\"}")
+            .andExpect(status().isCreated())
+            .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+            .andExpect(content().string(first));
+        
+        assertEquals(1, controller.runs.get());
+        assertEquals(replayedBefore + 1, count("replayed-database"));
+    }
+    
+    @Test
+    void concurrentDuplicateJoinsTheFirstRequest() throws Exception {
+        controller.hold();
+        Future<MockHttpServletResponse> first = executor.submit(() -> placeBook().andReturn().getResponse());
+        assertTrue(controller.entered.await(10, TimeUnit.SECONDS));
+        double joinedBefore = count("joined");
+        
+        Future<MockHttpServletResponse> duplicate = executor.submit(() -> placeBook().andReturn().getResponse());
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (count("joined") == joinedBefore && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        controller.release.countDown();
+        
+        MockHttpServletResponse firstResponse = first.get(10, TimeUnit.SECONDS);
+        MockHttpServletResponse duplicateResponse = duplicate.get(10, TimeUnit.SECONDS);
+        assertEquals(joinedBefore + 1, count("joined"));
+        assertEquals(1, controller.runs.get());
+        assertEquals(201, firstResponse.getStatus());
+        assertEquals(201, duplicateResponse.getStatus());
+        assertEquals("true", duplicateResponse.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(firstResponse.getContentAsString(), duplicateResponse.getContentAsString());
+    }
+    
+    @Test
+    void sameKeyWithADifferentBodyIsRefused() throws Exception {
+        place(key, "{\"item\": \"book\"}").andExpect(status().isCreated());
+        
+        place(key, "{\"item\": \"lamp\"}").andExpect(status().isUnprocessableEntity());
+        
+        assertEquals(1, controller.runs.get());
+    }
+    
+    @Test
+    void serverErrorReleasesTheKeySoARetryRunsAgain() throws Exception {
+        place(key, "{\"status\": 503}")
+            .andExpect(status().isServiceUnavailable());
+        assertTrue(repository.findById(scoped(key)).isEmpty());
+        
+        place(key, "{\"status\": 503}")
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        
+        assertEquals(2, controller.runs.get());
+    }
+    
+    @Test
+    void clientErrorIsKeptAndReplayed() throws Exception {
+        place(key, "{\"status\": 409}")
+            .andExpect(status().isConflict());
+        
+        place(key, "{\"status\": 409}")
+            .andExpect(status().isConflict())
+            .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+        
+        assertEquals(1, controller.runs.get());
+    }
+    
+    @Test
+    void requestsWithoutAKeyAreNotTracked() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/test/orders")
+                    .header("X-User-Id", USER)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"item\": \"book\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        }
+        
+        assertEquals(2, controller.runs.get());
+    }
+    
+    @Test
+    void keyedRequestsNeedACaller() throws Exception {
+        mockMvc.perform(post("/test/orders")
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"item\": \"book\"}"))
+            .andExpect(status().isBadRequest());
+        
+        assertEquals(0, controller.runs.get());
+        assertNull(completedCache().getIfPresent(scoped(key)));
+    }
+    
+    private ResultActions place(String idempotencyKey, String body) throws Exception {
+        return mockMvc.perform(post("/test/orders")
+            .header("X-User-Id", USER)
+            .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body));
+    }
+    
+    private ResultActions placeBook() throws Exception {
+        return place(key, "{\"item\": \"book\"}");
+    }
+    
+    private static String scoped(String idempotencyKey) {
+        return USER + ":/test/orders:" + idempotencyKey;
+    }
+    
+    private double count(String result) {
+        return meterRegistry.counter("idempotency.requests", "result", result).count();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Cache<String, IdempotentResponse> completedCache() {
+        return (Cache<String, IdempotentResponse>) ReflectionTestUtils.getField(store, "completed");
+    }
+    
+    // Answers with the status asked for in the body, and can be held mid-request to line up a duplicate.
+    // Mapped without @RestController so the idempotency package's component scan doesn't register it twice
+    @RequestMapping
+    static class TestOrderController {
+        
+        final AtomicInteger runs = new AtomicInteger();
+        volatile CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch release = new CountDownLatch(0);
+        
+        void reset() {
+            runs.set(0);
+            entered = new CountDownLatch(1);
+            release = new CountDownLatch(0);
+        }
+        
+        void hold() {
+            release = new CountDownLatch(1);
+        }
+        
+        @PostMapping("/test/orders")
+        public ResponseEntity<Map<String, Object>> place(@RequestBody Map<String, Object> body) throws InterruptedException {
+            int run = runs.incrementAndGet();
+            entered.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            int status = ((Number) body.getOrDefault("status", 201)).intValue();
+            return ResponseEntity.status(status).body(Map.of("run", run, "id", UUID.randomUUID().toString()));
+        }
+    }
+    
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    static class TestApplication {
+        
+        @Bean
+        TestOrderController testOrderController() {
+            return new TestOrderController();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.common.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = OutboxRelayTest.TestApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EventControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private RestTemplate eventRestTemplate;
+    
+    @Test
+    void batchWithoutTheSecretIsRefused() throws Exception {
+        mockMvc.perform(events(UUID.randomUUID().toString()))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(events(UUID.randomUUID().toString()).header(EventController.SECRET_HEADER, "guess"))
+            .andExpect(status().isUnauthorized());
+    }
+    
+    @Test
+    void batchWithTheSecretIsDispatched() throws Exception {
+        String eventId = UUID.randomUUID().toString();
+        mockMvc.perform(events(eventId).header(EventController.SECRET_HEADER, "test-events-secret"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.processedIds[0]").value(eventId));
+    }
+    
+    @Test
+    void relaySendsTheSecret() {
+        MockRestServiceServer server = MockRestServiceServer.bindTo(eventRestTemplate).build();
+        server.expect(requestTo("http://test-service/api/events"))
+            .andExpect(header(EventController.SECRET_HEADER, "test-events-secret"))
+            .andRespond(withSuccess("{\"processedIds\": []}", MediaType.APPLICATION_JSON));
+        
+        eventRestTemplate.postForObject("http://test-service/api/events", List.of(), EventDeliveryResult.class);
+        
+        server.verify();
+    }
+    
+    private MockHttpServletRequestBuilder events(String eventId) {
+        return post("/api/events")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"id\": \"" + eventId + "\", \"type\": \"TestEvent\", \"aggregateType\": \"order\", "
+                + "\"aggregateId\": \"1\", \"payload\": {}}]");
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.common.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = OutboxRelayTest.TestApplication.class, properties = "outbox.relay.enabled=true")
+@ActiveProfiles("test")
+class OutboxRelaySchedulingTest {
+    
+    @Autowired
+    private OutboxEventRepository repository;
+    
+    @MockBean(name = "eventRestTemplate")
+    private RestTemplate eventRestTemplate;
+    
+    @Test
+    void relayDeliversOnItsOwnThreads() throws Exception {
+        CompletableFuture<String> deliveredOn = new CompletableFuture<>();
+        when(eventRestTemplate.postForObject(anyString(), any(), eq(EventDeliveryResult.class))).thenAnswer(invocation -> {
+            deliveredOn.complete(Thread.currentThread().getName());
+            return new EventDeliveryResult(List.of());
+        });
+        
+        repository.save(new OutboxEvent(UUID.randomUUID().toString(), "test-service", "TestEvent", "order", "1", "{}"));
+        
+        String thread = deliveredOn.get(10, TimeUnit.SECONDS);
+        assertTrue(thread.startsWith("outbox-relay-"), thread);
+    }
+}
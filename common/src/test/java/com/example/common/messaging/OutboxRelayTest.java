@@ -0,0 +1,151 @@
+package com.example.common.messaging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = OutboxRelayTest.TestApplication.class)
+@ActiveProfiles("test")
+class OutboxRelayTest {
+    
+    private static final String DESTINATION = "test-service";
+    
+    @Autowired
+    private OutboxRelay relay;
+    
+    @Autowired
+    private OutboxEventRepository repository;
+    
+    @MockBean(name = "eventRestTemplate")
+    private RestTemplate eventRestTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+    
+    @Test
+    void refusedEventIsDeadLetteredAndStopsHoldingBackItsAggregate() {
+        OutboxEvent bad = save("order", "1", "{\"valid\": false}");
+        OutboxEvent next = save("order", "1", "{\"valid\": true}");
+        OutboxEvent other = save("order", "2", "{\"valid\": true}");
+        // The subscriber refuses any batch with the bad event in it
+        answer(messages -> {
+            if (messages.stream().anyMatch(message -> message.getId().equals(bad.getEventId()))) {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            }
+            return processedAll(messages);
+        });
+        
+        relay.relay();
+        relay.relay();
+        
+        OutboxEvent dead = repository.findById(bad.getId()).orElseThrow();
+        assertEquals(OutboxEventStatus.DEAD_LETTER, dead.getStatus());
+        assertNotNull(dead.getLastError());
+        assertTrue(repository.findById(next.getId()).isEmpty());
+        assertTrue(repository.findById(other.getId()).isEmpty());
+    }
+    
+    @Test
+    void eventTheSubscriberKeepsFailingIsDeadLetteredAfterMaxAttempts() {
+        OutboxEvent event = save("order", "3", "{}");
+        answer(messages -> new EventDeliveryResult(List.of()));
+        
+        for (int i = 0; i < 5; i++) {
+            relay.relay();
+        }
+        
+        OutboxEvent dead = repository.findById(event.getId()).orElseThrow();
+        assertEquals(OutboxEventStatus.DEAD_LETTER, dead.getStatus());
+        assertEquals(3, dead.getAttempts());
+    }
+    
+    @Test
+    void unreachableSubscriberIsRetriedWithoutGivingUp() {
+        OutboxEvent event = save("order", "4", "{}");
+        answer(messages -> {
+            throw new ResourceAccessException("Connection refused");
+        });
+        
+        for (int i = 0; i < 5; i++) {
+            relay.relay();
+        }
+        
+        OutboxEvent pending = repository.findById(event.getId()).orElseThrow();
+        assertEquals(OutboxEventStatus.PENDING, pending.getStatus());
+        assertEquals(5, pending.getAttempts());
+        assertEquals(0, pending.getFailedAttempts());
+    }
+    
+    @Test
+    void unreadablePayloadIsDeadLetteredWithoutBeingSent() {
+        OutboxEvent event = save("order", "5", "{not json");
+        
+        relay.relay();
+        
+        assertEquals(OutboxEventStatus.DEAD_LETTER, repository.findById(event.getId()).orElseThrow().getStatus());
+        verify(eventRestTemplate, never()).postForObject(anyString(), any(), eq(EventDeliveryResult.class));
+    }
+    
+    private OutboxEvent save(String aggregateType, String aggregateId, String payload) {
+        return repository.save(new OutboxEvent(UUID.randomUUID().toString(), DESTINATION, "TestEvent",
+            aggregateType, aggregateId, payload));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void answer(Function<List<EventMessage>, EventDeliveryResult> subscriber) {
+        when(eventRestTemplate.postForObject(anyString(), any(), eq(EventDeliveryResult.class)))
+            .thenAnswer(invocation -> subscriber.apply((List<EventMessage>) invocation.getArgument(1)));
+    }
+    
+    private static EventDeliveryResult processedAll(List<EventMessage> messages) {
+        return new EventDeliveryResult(messages.stream().map(EventMessage::getId).collect(Collectors.toList()));
+    }
+    
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    static class TestApplication {
+        
+        @Bean
+        EventHandler testEventHandler() {
+            return new EventHandler() {
+                
+                @Override
+                public Set<String> getEventTypes() {
+                    return Set.of("TestEvent");
+                }
+                
+                @Override
+                public void handle(EventMessage event) {
+                }
+            };
+        }
+    }
+}
@@ -1,8 +1,8 @@
 import React, { createContext, useContext, useReducer, ReactNode } from 'react';
-import { Product } from '../types';
+import { ProductSummary } from '../types';
 
 interface CartItem {
-  product: Product;
+  product: ProductSummary;
   quantity: number;
 }
 
@@ -13,7 +13,7 @@ interface CartState {
 }
 
 type CartAction =
-  | { type: 'ADD_ITEM'; payload: Product }
+  | { type: 'ADD_ITEM'; payload: ProductSummary }
   | { type: 'REMOVE_ITEM'; payload: number }
   | { type: 'UPDATE_QUANTITY'; payload: { productId: number; quantity: number } }
   | { type: 'CLEAR_CART' };
@@ -92,7 +92,7 @@ const cartReducer = (state: CartState, action: CartAction): CartState => {
 
 interface CartContextType {
   state: CartState;
-  addToCart: (product: Product) => void;
+  addToCart: (product: ProductSummary) => void;
   removeFromCart: (productId: number) => void;
   updateQuantity: (productId: number, quantity: number) => void;
   clearCart: () => void;
@@ -116,7 +116,7 @@ interface CartProviderProps {
 export const CartProvider: React.FC<CartProviderProps> = ({ children }) => {
   const [state, dispatch] = useReducer(cartReducer, initialState);
 
-  const addToCart = (product: Product) => {
+  const addToCart = (product: ProductSummary) => {
     dispatch({ type: 'ADD_ITEM', payload: product });
   };
 
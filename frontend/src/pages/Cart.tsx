@@ -1,6 +1,9 @@
-import React from 'react';
-import { Link } from 'react-router-dom';
+import React, { useMemo, useState } from 'react';
+import { Link, useNavigate } from 'react-router-dom';
+import toast from 'react-hot-toast';
 import { useCart } from '../contexts/CartContext';
+import { useAuth } from '../contexts/AuthContext';
+import { orderAPI } from '../services/api';
 import { 
   TrashIcon, 
   PlusIcon, 
@@ -11,6 +14,11 @@ import {
 
 const Cart: React.FC = () => {
   const { state: cartState, removeFromCart, updateQuantity, clearCart } = useCart();
+  const { user } = useAuth();
+  const navigate = useNavigate();
+  const [placingOrder, setPlacingOrder] = useState(false);
+  // One key per cart content, so retrying a checkout that failed on the network can't order twice
+  const idempotencyKey = useMemo(() => crypto.randomUUID(), [cartState.items]);
 
   const handleQuantityChange = (productId: number, newQuantity: number) => {
     if (newQuantity <= 0) {
@@ -20,6 +28,26 @@ const Cart: React.FC = () => {
     }
   };
 
+  const handleCheckout = async () => {
+    if (!user) {
+      navigate('/login');
+      return;
+    }
+    setPlacingOrder(true);
+    try {
+      const response = await orderAPI.place({
+        items: cartState.items.map((item) => ({ productId: item.product.id, quantity: item.quantity })),
+      }, idempotencyKey);
+      clearCart();
+      toast.success(`Order #${response.data.id} received, we'll confirm it shortly`);
+      navigate('/orders');
+    } catch (error: any) {
+      toast.error(error.response?.data?.message || 'Could not place your order. Please try again.');
+    } finally {
+      setPlacingOrder(false);
+    }
+  };
+
   if (cartState.items.length === 0) {
     return (
       <div className="max-w-7xl mx-auto px-4 sm:px-6 lg:px-8 py-12">
@@ -159,8 +187,12 @@ const Cart: React.FC = () => {
               </div>
             </div>
 
-            <button className="w-full bg-primary-600 text-white py-3 px-4 rounded-lg hover:bg-primary-700 transition-colors font-medium">
-              Proceed to Checkout
+            <button
+              onClick={handleCheckout}
+              disabled={placingOrder}
+              className="w-full bg-primary-600 text-white py-3 px-4 rounded-lg hover:bg-primary-700 transition-colors font-medium disabled:opacity-50 disabled:cursor-not-allowed"
+            >
+              {placingOrder ? 'Placing Order...' : 'Proceed to Checkout'}
             </button>
 
             <Link
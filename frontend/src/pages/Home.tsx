@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
-import { Product } from '../types';
+import { Product, ProductSummary } from '../types';
 import { productAPI } from '../services/api';
 import ProductCard from '../components/ProductCard';
 import { useCart } from '../contexts/CartContext';
@@ -12,14 +12,14 @@ import {
 } from '@heroicons/react/24/outline';
 
 const Home: React.FC = () => {
-  const [featuredProducts, setFeaturedProducts] = useState<Product[]>([]);
+  const [featuredProducts, setFeaturedProducts] = useState<ProductSummary[]>([]);
   const [loading, setLoading] = useState(true);
   const { addToCart } = useCart();
 
   useEffect(() => {
     const fetchProducts = async () => {
       try {
-        const response = await productAPI.getAvailable();
+        const response = await productAPI.getAvailableSummaries();
         setFeaturedProducts(response.data.slice(0, 8)); // Show first 8 products
       } catch (error) {
         console.error('Error fetching products:', error);
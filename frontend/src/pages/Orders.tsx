@@ -1,12 +1,114 @@
-import React from 'react';
+import React, { useEffect, useState } from 'react';
+import { Link } from 'react-router-dom';
+import { ShoppingBagIcon } from '@heroicons/react/24/outline';
+import { orderAPI } from '../services/api';
+import { Order } from '../types';
+
+const statusStyles: Record<Order['status'], string> = {
+  PENDING: 'bg-yellow-100 text-yellow-800',
+  CONFIRMED: 'bg-blue-100 text-blue-800',
+  SHIPPED: 'bg-indigo-100 text-indigo-800',
+  DELIVERED: 'bg-green-100 text-green-800',
+  CANCELLED: 'bg-red-100 text-red-800',
+};
+
+// Placed orders are confirmed or cancelled in the background; check back until they settle
+const PENDING_REFRESH_MS = 2000;
+
+const formatAmount = (amount: number | null) => (amount === null ? '—' : `$${amount.toFixed(2)}`);
 
 const Orders: React.FC = () => {
+  const [orders, setOrders] = useState<Order[]>([]);
+  const [loading, setLoading] = useState(true);
+
+  useEffect(() => {
+    const fetchOrders = async () => {
+      try {
+        const response = await orderAPI.getMine();
+        setOrders(response.data);
+      } catch (error) {
+        console.error('Error fetching orders:', error);
+      } finally {
+        setLoading(false);
+      }
+    };
+
+    fetchOrders();
+  }, []);
+
+  const hasPending = orders.some((order) => order.status === 'PENDING');
+
+  useEffect(() => {
+    if (!hasPending) {
+      return;
+    }
+    const timer = setInterval(async () => {
+      try {
+        const response = await orderAPI.getMine();
+        setOrders(response.data);
+      } catch (error) {
+        console.error('Error refreshing orders:', error);
+      }
+    }, PENDING_REFRESH_MS);
+    return () => clearInterval(timer);
+  }, [hasPending]);
+
   return (
     <div className="max-w-7xl mx-auto px-4 sm:px-6 lg:px-8 py-8">
       <h1 className="text-3xl font-bold text-gray-900 mb-8">Orders</h1>
-      <p className="text-gray-600">Orders page coming soon...</p>
+
+      {loading ? (
+        <div className="space-y-4">
+          {[...Array(3)].map((_, index) => (
+            <div key={index} className="bg-white rounded-lg shadow-sm border border-gray-200 p-6 animate-pulse">
+              <div className="h-4 bg-gray-200 rounded w-1/4 mb-4"></div>
+              <div className="h-4 bg-gray-200 rounded w-3/4"></div>
+            </div>
+          ))}
+        </div>
+      ) : orders.length === 0 ? (
+        <div className="text-center py-12">
+          <ShoppingBagIcon className="h-16 w-16 text-gray-400 mx-auto mb-4" />
+          <p className="text-gray-600 mb-6">You haven't placed any orders yet.</p>
+          <Link
+            to="/products"
+            className="inline-flex items-center px-6 py-3 bg-primary-600 text-white rounded-lg hover:bg-primary-700 transition-colors"
+          >
+            Start Shopping
+          </Link>
+        </div>
+      ) : (
+        <div className="space-y-4">
+          {orders.map((order) => (
+            <div key={order.id} className="bg-white rounded-lg shadow-sm border border-gray-200">
+              <div className="p-6 border-b border-gray-200 flex items-center justify-between">
+                <div>
+                  <h2 className="text-lg font-semibold text-gray-900">Order #{order.id}</h2>
+                  <p className="text-sm text-gray-600">{new Date(order.createdAt).toLocaleString()}</p>
+                </div>
+                <div className="flex items-center gap-4">
+                  <span className={`px-3 py-1 rounded-full text-xs font-medium ${statusStyles[order.status]}`}>
+                    {order.status}
+                  </span>
+                  <span className="text-lg font-semibold text-gray-900">{formatAmount(order.totalAmount)}</span>
+                </div>
+              </div>
+              <ul className="divide-y divide-gray-200">
+                {order.items.map((line) => (
+                  <li key={line.productId} className="px-6 py-3 flex justify-between text-sm">
+                    <Link to={`/products/${line.productId}`} className="text-gray-900 hover:text-primary-600">
+                      {line.productName ?? `Product #${line.productId}`} &times; {line.quantity}
+                    </Link>
+                    <span className="text-gray-600">{formatAmount(line.lineTotal)}</span>
+                  </li>
+                ))}
+              </ul>
+            </div>
+          ))}
+        </div>
+      )}
     </div>
   );
 };
 
-export default Orders; 
\ No newline at end of file
+export default Orders;
@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useSearchParams } from 'react-router-dom';
-import { Product } from '../types';
+import { Product, ProductSummary } from '../types';
 import { productAPI } from '../services/api';
 import ProductCard from '../components/ProductCard';
 import { useCart } from '../contexts/CartContext';
@@ -12,7 +12,7 @@ import {
 
 const Products: React.FC = () => {
   const [searchParams, setSearchParams] = useSearchParams();
-  const [products, setProducts] = useState<Product[]>([]);
+  const [products, setProducts] = useState<ProductSummary[]>([]);
   const [loading, setLoading] = useState(true);
   const { addToCart } = useCart();
   const [filters, setFilters] = useState({
@@ -193,11 +193,11 @@ const Products: React.FC = () => {
     try {
       let response;
       if (filters.category) {
-        response = await productAPI.getByCategory(filters.category);
+        response = await productAPI.getSummariesByCategory(filters.category);
       } else if (filters.brand) {
-        response = await productAPI.getByBrand(filters.brand);
+        response = await productAPI.getSummariesByBrand(filters.brand);
       } else {
-        response = await productAPI.getAll();
+        response = await productAPI.getSummaries();
       }
       
       let filteredProducts = response.data;
@@ -314,7 +314,7 @@ const Products: React.FC = () => {
     setSearchParams({});
   };
 
-  const handleAddToCart = (product: Product) => {
+  const handleAddToCart = (product: ProductSummary) => {
     addToCart(product);
   };
 
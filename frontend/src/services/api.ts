@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { Product, User, AuthResponse, LoginRequest, RegisterRequest } from '../types';
+import { Product, ProductSummary, User, UserPage, UserPageQuery, AuthResponse, LoginRequest, RegisterRequest, Order, PlaceOrderRequest } from '../types';
 
 const API_BASE_URL = process.env.REACT_APP_API_URL || 'http://localhost:8080';
 
@@ -39,12 +39,15 @@ api.interceptors.response.use(
 
 // Product API
 export const productAPI = {
-  getAll: () => api.get<Product[]>('/api/products'),
+  // Listings ask for fields=summary: the cards and the cart only show these columns
+  getSummaries: () => api.get<ProductSummary[]>('/api/products', { params: { fields: 'summary' } }),
   getById: (id: number) => api.get<Product>(`/api/products/${id}`),
-  getByCategory: (category: string) => api.get<Product[]>(`/api/products/category/${category}`),
-  getByBrand: (brand: string) => api.get<Product[]>(`/api/products/brand/${brand}`),
+  getSummariesByCategory: (category: string) =>
+    api.get<ProductSummary[]>(`/api/products/category/${category}`, { params: { fields: 'summary' } }),
+  getSummariesByBrand: (brand: string) =>
+    api.get<ProductSummary[]>(`/api/products/brand/${brand}`, { params: { fields: 'summary' } }),
   search: (keyword: string) => api.get<Product[]>(`/api/products/search?keyword=${keyword}`),
-  getAvailable: () => api.get<Product[]>('/api/products/available'),
+  getAvailableSummaries: () => api.get<ProductSummary[]>('/api/products/available', { params: { fields: 'summary' } }),
   create: (product: Omit<Product, 'id' | 'createdAt' | 'updatedAt' | 'active'>) => 
     api.post<Product>('/api/products', product),
   update: (id: number, product: Partial<Product>) => 
@@ -63,7 +66,9 @@ export const userAPI = {
   getCurrent: () => api.get<User>('/api/users/current'),
   getById: (id: number) => api.get<User>(`/api/users/${id}`),
   getByUsername: (username: string) => api.get<User>(`/api/users/username/${username}`),
-  getAll: () => api.get<User[]>('/api/users'),
+  checkAvailability: (params: { username?: string; email?: string }) =>
+    api.get<{ usernameAvailable: boolean | null; emailAvailable: boolean | null }>('/api/users/availability', { params }),
+  getPage: (query: UserPageQuery = {}) => api.get<UserPage>('/api/users/page', { params: query }),
   update: (id: number, userData: Partial<RegisterRequest>) => 
     api.put<User>(`/api/users/${id}`, userData),
   delete: (id: number) => api.delete(`/api/users/${id}`),
@@ -75,4 +80,15 @@ export const userAPI = {
   }),
 };
 
+// Order API
+export const orderAPI = {
+  // Answers 202 with the order PENDING; stock and payment are settled afterwards, and an order that
+  // can't get them turns CANCELLED. 409 means the order may still be going through.
+  // Resending with the same idempotency key returns the first attempt's result instead of a second order
+  place: (order: PlaceOrderRequest, idempotencyKey: string) =>
+    api.post<Order>('/api/orders', order, { headers: { 'Idempotency-Key': idempotencyKey } }),
+  getMine: (page = 0, size = 20) => api.get<Order[]>('/api/orders', { params: { page, size } }),
+  getById: (id: number) => api.get<Order>(`/api/orders/${id}`),
+};
+
 export default api; 
\ No newline at end of file
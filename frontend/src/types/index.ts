@@ -12,6 +12,9 @@ export interface Product {
   active: boolean;
 }
 
+// List item returned for fields=summary; description is cut to its first 160 characters
+export type ProductSummary = Pick<Product, 'id' | 'name' | 'description' | 'price' | 'stockQuantity' | 'category' | 'brand' | 'imageUrl'>;
+
 export interface User {
   id: number;
   username: string;
@@ -27,6 +30,25 @@ export interface User {
   lastLogin: string | null;
 }
 
+export interface UserPage {
+  users: User[];
+  page: number;
+  size: number;
+  totalElements: number;
+  totalPages: number;
+}
+
+export interface UserPageQuery {
+  role?: User['role'];
+  enabled?: boolean;
+  createdFrom?: string;
+  createdTo?: string;
+  username?: string;
+  page?: number;
+  size?: number;
+  sort?: string;
+}
+
 export interface AuthResponse {
   token: string;
   type: string;
@@ -53,12 +75,25 @@ export interface CartItem {
   quantity: number;
 }
 
+// Name and prices stay null until the stock for the order has been reserved
+export interface OrderLine {
+  productId: number;
+  productName: string | null;
+  unitPrice: number | null;
+  quantity: number;
+  lineTotal: number | null;
+}
+
 export interface Order {
   id: number;
   userId: number;
-  items: CartItem[];
-  totalAmount: number;
+  items: OrderLine[];
+  totalAmount: number | null;
   status: 'PENDING' | 'CONFIRMED' | 'SHIPPED' | 'DELIVERED' | 'CANCELLED';
   createdAt: string;
   updatedAt: string | null;
-} 
\ No newline at end of file
+}
+
+export interface PlaceOrderRequest {
+  items: { productId: number; quantity: number }[];
+}
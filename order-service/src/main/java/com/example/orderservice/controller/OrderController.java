@@ -0,0 +1,78 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.service.OrderCommitRejectedException;
+import com.example.orderservice.service.OrderCommitTimeoutException;
+import com.example.orderservice.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.persistence.EntityNotFoundException;
+import javax.validation.Valid;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order endpoints. The gateway authenticates callers and passes who they are in the
+ * X-User-Id and X-User-Role headers; users only ever see their own orders.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@CrossOrigin(origins = "*")
+public class OrderController {
+    
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String USER_ROLE_HEADER = "X-User-Role";
+    
+    @Autowired
+    private OrderService orderService;
+    
+    // Accepted rather than created: the order is saved, but stock and payment are still to come
+    @PostMapping
+    public ResponseEntity<?> placeOrder(@RequestHeader(USER_ID_HEADER) Long userId,
+                                        @Valid @RequestBody OrderRequest request) {
+        try {
+            OrderResponse response = orderService.placeOrder(userId, request);
+            return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+        } catch (OrderCommitRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (OrderCommitTimeoutException e) {
+            // Not a 5xx: the idempotency store keeps this answer, so a retry with the same key
+            // replays it instead of placing the order a second time
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping
+    public ResponseEntity<List<OrderResponse>> getMyOrders(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.getOrdersForUser(userId, page, size));
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id,
+                                                      @RequestHeader(USER_ID_HEADER) Long userId,
+                                                      @RequestHeader(value = USER_ROLE_HEADER, required = false) String role) {
+        try {
+            OrderResponse response = orderService.getOrder(id, userId, "ADMIN".equals(role));
+            return ResponseEntity.ok(response);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/health")
+    public ResponseEntity<String> health() {
+        return ResponseEntity.ok("Order Service is running!");
+    }
+}
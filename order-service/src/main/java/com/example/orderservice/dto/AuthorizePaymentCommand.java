@@ -0,0 +1,44 @@
+package com.example.orderservice.dto;
+
+import java.math.BigDecimal;
+
+public class AuthorizePaymentCommand {
+    
+    private Long orderId;
+    private Long userId;
+    private BigDecimal amount;
+    
+    // Constructors
+    public AuthorizePaymentCommand() {}
+    
+    public AuthorizePaymentCommand(Long orderId, Long userId, BigDecimal amount) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.amount = amount;
+    }
+    
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
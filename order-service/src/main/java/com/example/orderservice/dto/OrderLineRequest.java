@@ -0,0 +1,44 @@
+package com.example.orderservice.dto;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+public class OrderLineRequest {
+    
+    // Per product, after lines for the same product are added up
+    public static final int MAX_QUANTITY = 1000;
+    
+    @NotNull(message = "Product id is required")
+    private Long productId;
+    
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    @Max(value = MAX_QUANTITY, message = "Quantity must be at most " + MAX_QUANTITY)
+    private Integer quantity;
+    
+    // Constructors
+    public OrderLineRequest() {}
+    
+    public OrderLineRequest(Long productId, Integer quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+    
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.orderservice.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class OrderRequest {
+    
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 100, message = "An order can have at most 100 lines")
+    private List<@Valid OrderLineRequest> items;
+    
+    // Constructors
+    public OrderRequest() {}
+    
+    public OrderRequest(List<OrderLineRequest> items) {
+        this.items = items;
+    }
+    
+    // Getters and Setters
+    public List<OrderLineRequest> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<OrderLineRequest> items) {
+        this.items = items;
+    }
+}
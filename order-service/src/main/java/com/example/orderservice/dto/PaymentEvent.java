@@ -0,0 +1,54 @@
+package com.example.orderservice.dto;
+
+import java.math.BigDecimal;
+
+public class PaymentEvent {
+    
+    private Long orderId;
+    private Long userId;
+    private Long paymentId;
+    private BigDecimal amount;
+    
+    // Constructors
+    public PaymentEvent() {}
+    
+    public PaymentEvent(Long orderId, Long userId, Long paymentId, BigDecimal amount) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.paymentId = paymentId;
+        this.amount = amount;
+    }
+    
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getPaymentId() {
+        return paymentId;
+    }
+    
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.orderservice.dto;
+
+// Gives back whatever stock was reserved for the order, if any
+public class ReleaseStockCommand {
+    
+    private Long orderId;
+    
+    // Constructors
+    public ReleaseStockCommand() {}
+    
+    public ReleaseStockCommand(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+}
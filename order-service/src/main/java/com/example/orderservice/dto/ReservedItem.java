@@ -0,0 +1,55 @@
+package com.example.orderservice.dto;
+
+import java.math.BigDecimal;
+
+// A reserved line as priced by product-service when it took the stock
+public class ReservedItem {
+    
+    private Long productId;
+    private String name;
+    private BigDecimal unitPrice;
+    private Integer quantity;
+    
+    // Constructors
+    public ReservedItem() {}
+    
+    public ReservedItem(Long productId, String name, BigDecimal unitPrice, Integer quantity) {
+        this.productId = productId;
+        this.name = name;
+        this.unitPrice = unitPrice;
+        this.quantity = quantity;
+    }
+    
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+    
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.orderservice.dto;
+
+public class StockItemRequest {
+    
+    private Long productId;
+    private Integer quantity;
+    
+    // Constructors
+    public StockItemRequest() {}
+    
+    public StockItemRequest(Long productId, Integer quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+    
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
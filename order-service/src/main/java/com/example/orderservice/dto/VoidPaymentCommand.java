@@ -0,0 +1,23 @@
+package com.example.orderservice.dto;
+
+// Voids the order's authorized payment, if it has one
+public class VoidPaymentCommand {
+    
+    private Long orderId;
+    
+    // Constructors
+    public VoidPaymentCommand() {}
+    
+    public VoidPaymentCommand(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+}
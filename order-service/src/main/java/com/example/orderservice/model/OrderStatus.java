@@ -0,0 +1,9 @@
+package com.example.orderservice.model;
+
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED
+}
@@ -0,0 +1,15 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    
+    // Lines are loaded per page in one IN query (hibernate.default_batch_fetch_size), not per order
+    List<Order> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+}
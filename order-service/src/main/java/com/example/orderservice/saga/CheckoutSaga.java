@@ -0,0 +1,157 @@
+package com.example.orderservice.saga;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Where the checkout of one order stands. The row is the saga's only state: commands it has
+ * sent sit in the outbox and replies arrive as events, so a restarted instance carries on
+ * from here. Deadline is set while the saga waits on another service and cleared once it ends.
+ */
+@Entity
+@Table(name = "checkout_sagas", indexes = {
+    @Index(name = "idx_checkout_sagas_deadline", columnList = "deadline")
+})
+public class CheckoutSaga {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "checkout_saga_seq")
+    @SequenceGenerator(name = "checkout_saga_seq", sequenceName = "checkout_saga_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false, unique = true)
+    private Long orderId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private CheckoutSagaState state;
+    
+    // The amount sent for authorization, once the stock is reserved and priced
+    @Column(precision = 12, scale = 2)
+    private BigDecimal amount;
+    
+    @Column
+    private LocalDateTime deadline;
+    
+    @Column(name = "failure_reason")
+    private String failureReason;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Version
+    private Long version;
+    
+    // Constructors
+    public CheckoutSaga() {}
+    
+    public CheckoutSaga(Long orderId, Long userId) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Moves to a state that waits on another service until the deadline
+    public void await(CheckoutSagaState state, LocalDateTime deadline) {
+        this.state = state;
+        this.deadline = deadline;
+    }
+    
+    public void end(CheckoutSagaState state) {
+        this.state = state;
+        this.deadline = null;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public CheckoutSagaState getState() {
+        return state;
+    }
+    
+    public void setState(CheckoutSagaState state) {
+        this.state = state;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public LocalDateTime getDeadline() {
+        return deadline;
+    }
+    
+    public void setDeadline(LocalDateTime deadline) {
+        this.deadline = deadline;
+    }
+    
+    public String getFailureReason() {
+        return failureReason;
+    }
+    
+    public void setFailureReason(String failureReason) {
+        this.failureReason = failureReason;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.orderservice.saga;
+
+import com.example.common.messaging.EventHandler;
+import com.example.common.messaging.EventMessage;
+import com.example.common.messaging.EventTypes;
+import com.example.common.messaging.Outbox;
+import com.example.orderservice.dto.AuthorizePaymentCommand;
+import com.example.orderservice.dto.PaymentEvent;
+import com.example.orderservice.dto.ReleaseStockCommand;
+import com.example.orderservice.dto.ReserveStockCommand;
+import com.example.orderservice.dto.ReservedItem;
+import com.example.orderservice.dto.StockItemRequest;
+import com.example.orderservice.dto.StockReservationEvent;
+import com.example.orderservice.dto.VoidPaymentCommand;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderLine;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drives the checkout of each placed order through its steps:
+ * <ol>
+ * <li>reserve stock: ReserveStock to product-service, answered by StockReserved or
+ * StockReservationFailed;</li>
+ * <li>create the order: price its lines at the reserved prices;</li>
+ * <li>authorize payment: AuthorizePayment to payment-service, answered by PaymentAuthorized,
+ * which confirms the order, or PaymentDeclined.</li>
+ * </ol>
+ * Once stock is reserved, a decline or a step that misses its deadline cancels the order and
+ * compensates: ReleaseStock to product-service, plus VoidPayment when an authorization may be
+ * under way, and the saga ends when StockReleased comes back.
+ * <p>
+ * No thread waits on a checkout. Commands go out through the outbox in the same transaction
+ * as the state change that sends them, and replies come in through {@link EventHandler}, so
+ * each step is one short local transaction. A restarted instance resumes every saga from its
+ * {@link CheckoutSaga} row, and deadlines are checked every saga.checkout.timeout-scan-ms.
+ * Commands for one order reach a service in the order they were sent, so a release never
+ * overtakes the reservation it undoes.
+ */
+@Component
+public class CheckoutSagaOrchestrator implements EventHandler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutSagaOrchestrator.class);
+    
+    private static final String AGGREGATE_TYPE = "Order";
+    
+    @Autowired
+    private CheckoutSagaRepository sagaRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private Outbox outbox;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${saga.checkout.stock-timeout:30s}")
+    private Duration stockTimeout;
+    
+    @Value("${saga.checkout.payment-timeout:30s}")
+    private Duration paymentTimeout;
+    
+    @Value("${saga.checkout.compensation-timeout:5m}")
+    private Duration compensationTimeout;
+    
+    @Value("${saga.checkout.timeout-batch-size:100}")
+    private int timeoutBatchSize;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    // Starts the checkout of a newly saved order, in the transaction that saves it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void start(Order order) {
+        CheckoutSaga saga = new CheckoutSaga(order.getId(), order.getUserId());
+        saga.await(CheckoutSagaState.RESERVING_STOCK, LocalDateTime.now().plus(stockTimeout));
+        sagaRepository.save(saga);
+        
+        List<StockItemRequest> items = order.getLines().stream()
+            .map(line -> new StockItemRequest(line.getProductId(), line.getQuantity()))
+            .collect(Collectors.toList());
+        outbox.append(EventTypes.RESERVE_STOCK, AGGREGATE_TYPE, order.getId(),
+            new ReserveStockCommand(order.getId(), order.getUserId(), items));
+    }
+    
+    @Override
+    public Set<String> getEventTypes() {
+        return Set.of(EventTypes.STOCK_RESERVED, EventTypes.STOCK_RESERVATION_FAILED, EventTypes.STOCK_RELEASED,
+            EventTypes.PAYMENT_AUTHORIZED, EventTypes.PAYMENT_DECLINED, EventTypes.PAYMENT_VOIDED);
+    }
+    
+    @Override
+    public void handle(EventMessage event) {
+        switch (event.getType()) {
+            case EventTypes.STOCK_RESERVED:
+                onStockReserved(read(event, StockReservationEvent.class));
+                break;
+            case EventTypes.STOCK_RESERVATION_FAILED:
+                onStockReservationFailed(read(event, StockReservationEvent.class));
+                break;
+            case EventTypes.STOCK_RELEASED:
+                onStockReleased(read(event, StockReservationEvent.class));
+                break;
+            case EventTypes.PAYMENT_AUTHORIZED:
+                onPaymentAuthorized(read(event, PaymentEvent.class));
+                break;
+            case EventTypes.PAYMENT_DECLINED:
+                onPaymentDeclined(read(event, PaymentEvent.class));
+                break;
+            case EventTypes.PAYMENT_VOIDED:
+                logger.debug("Payment {} of order {} voided", read(event, PaymentEvent.class).getPaymentId(),
+                    event.getAggregateId());
+                break;
+            default:
+                throw new IllegalArgumentException("Unexpected event type " + event.getType());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${saga.checkout.timeout-scan-ms:1000}")
+    public void expireOverdue() {
+        List<Long> overdue;
+        do {
+            overdue = sagaRepository.findIdsPastDeadline(LocalDateTime.now(), PageRequest.of(0, timeoutBatchSize));
+            int expired = 0;
+            for (Long sagaId : overdue) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> expire(sagaId));
+                    expired++;
+                } catch (RuntimeException e) {
+                    // Usually a reply for the same saga committed first; the next scan looks again
+                    logger.debug("Could not expire checkout saga {}: {}", sagaId, e.getMessage());
+                }
+            }
+            if (expired == 0) {
+                return;
+            }
+        } while (overdue.size() == timeoutBatchSize);
+    }
+    
+    private void onStockReserved(StockReservationEvent event) {
+        CheckoutSaga saga = findSaga(event.getOrderId());
+        if (saga.getState() != CheckoutSagaState.RESERVING_STOCK) {
+            // Late reply to a saga that already timed out; its ReleaseStock gives this stock back
+            logger.debug("Ignoring StockReserved for order {} in state {}", event.getOrderId(), saga.getState());
+            return;
+        }
+        
+        Order order = findOrder(event.getOrderId());
+        Map<Long, ReservedItem> items = event.getItems().stream()
+            .collect(Collectors.toMap(ReservedItem::getProductId, Function.identity()));
+        for (OrderLine line : order.getLines()) {
+            ReservedItem item = items.get(line.getProductId());
+            if (item == null) {
+                throw new IllegalStateException("Reservation for order " + order.getId() + " misses product " + line.getProductId());
+            }
+            line.price(item.getName(), item.getUnitPrice());
+        }
+        order.updateTotal();
+        
+        saga.setAmount(order.getTotalAmount());
+        saga.await(CheckoutSagaState.AUTHORIZING_PAYMENT, LocalDateTime.now().plus(paymentTimeout));
+        outbox.append(EventTypes.AUTHORIZE_PAYMENT, AGGREGATE_TYPE, order.getId(),
+            new AuthorizePaymentCommand(order.getId(), order.getUserId(), order.getTotalAmount()));
+    }
+    
+    private void onStockReservationFailed(StockReservationEvent event) {
+        CheckoutSaga saga = findSaga(event.getOrderId());
+        if (saga.getState() != CheckoutSagaState.RESERVING_STOCK) {
+            return;
+        }
+        findOrder(event.getOrderId()).setStatus(OrderStatus.CANCELLED);
+        saga.setFailureReason("Out of stock: " + event.getUnavailableProductIds());
+        finish(saga, CheckoutSagaState.FAILED);
+    }
+    
+    private void onPaymentAuthorized(PaymentEvent event) {
+        CheckoutSaga saga = findSaga(event.getOrderId());
+        if (saga.getState() != CheckoutSagaState.AUTHORIZING_PAYMENT) {
+            // Authorized after the saga timed out; the VoidPayment sent then cancels it
+            logger.debug("Ignoring PaymentAuthorized for order {} in state {}", event.getOrderId(), saga.getState());
+            return;
+        }
+        findOrder(event.getOrderId()).setStatus(OrderStatus.CONFIRMED);
+        finish(saga, CheckoutSagaState.COMPLETED);
+    }
+    
+    private void onPaymentDeclined(PaymentEvent event) {
+        CheckoutSaga saga = findSaga(event.getOrderId());
+        if (saga.getState() == CheckoutSagaState.AUTHORIZING_PAYMENT) {
+            compensate(saga, "Payment declined", false);
+        }
+    }
+    
+    private void onStockReleased(StockReservationEvent event) {
+        CheckoutSaga saga = findSaga(event.getOrderId());
+        if (saga.getState() == CheckoutSagaState.COMPENSATING) {
+            finish(saga, CheckoutSagaState.COMPENSATED);
+        }
+    }
+    
+    private void expire(Long sagaId) {
+        CheckoutSaga saga = sagaRepository.findById(sagaId).orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        if (saga == null || saga.getDeadline() == null || saga.getDeadline().isAfter(now)) {
+            return;
+        }
+        meterRegistry.counter("checkout.saga.timeouts", "state", saga.getState().name()).increment();
+        switch (saga.getState()) {
+            case RESERVING_STOCK:
+                compensate(saga, "Stock reservation timed out", false);
+                break;
+            case AUTHORIZING_PAYMENT:
+                compensate(saga, "Payment authorization timed out", true);
+                break;
+            case COMPENSATING:
+                // ReleaseStock is still in the outbox and will get through; keep waiting
+                logger.warn("Checkout of order {} is still waiting for its stock to be released", saga.getOrderId());
+                saga.await(CheckoutSagaState.COMPENSATING, now.plus(compensationTimeout));
+                break;
+            default:
+                saga.setDeadline(null);
+        }
+    }
+    
+    private void compensate(CheckoutSaga saga, String reason, boolean voidPayment) {
+        Long orderId = saga.getOrderId();
+        findOrder(orderId).setStatus(OrderStatus.CANCELLED);
+        if (voidPayment) {
+            outbox.append(EventTypes.VOID_PAYMENT, AGGREGATE_TYPE, orderId, new VoidPaymentCommand(orderId));
+        }
+        outbox.append(EventTypes.RELEASE_STOCK, AGGREGATE_TYPE, orderId, new ReleaseStockCommand(orderId));
+        saga.setFailureReason(reason);
+        saga.await(CheckoutSagaState.COMPENSATING, LocalDateTime.now().plus(compensationTimeout));
+        logger.debug("Checkout of order {} cancelled: {}", orderId, reason);
+    }
+    
+    private void finish(CheckoutSaga saga, CheckoutSagaState outcome) {
+        saga.end(outcome);
+        Timer.builder("checkout.saga.duration")
+            .description("Time from placing an order to the end of its checkout")
+            .tag("outcome", outcome.name())
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry)
+            .record(Duration.between(saga.getCreatedAt(), LocalDateTime.now()));
+        logger.debug("Checkout of order {} ended {}", saga.getOrderId(), outcome);
+    }
+    
+    private CheckoutSaga findSaga(Long orderId) {
+        return sagaRepository.findByOrderId(orderId)
+            .orElseThrow(() -> new EntityNotFoundException("No checkout saga for order " + orderId));
+    }
+    
+    private Order findOrder(Long orderId) {
+        return orderRepository.findById(orderId)
+            .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + orderId));
+    }
+    
+    private <T> T read(EventMessage event, Class<T> payloadType) {
+        try {
+            return objectMapper.treeToValue(event.getPayload(), payloadType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable " + event.getType() + " payload", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.orderservice.saga;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CheckoutSagaRepository extends JpaRepository<CheckoutSaga, Long> {
+    
+    Optional<CheckoutSaga> findByOrderId(Long orderId);
+    
+    // Sagas that ended have no deadline, so this only ever sees the ones still waiting
+    @Query("SELECT s.id FROM CheckoutSaga s WHERE s.deadline <= :now ORDER BY s.deadline")
+    List<Long> findIdsPastDeadline(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package com.example.orderservice.saga;
+
+public enum CheckoutSagaState {
+    // Waiting for product-service to reserve the stock
+    RESERVING_STOCK,
+    // Order priced from the reservation; waiting for payment-service to authorize the amount
+    AUTHORIZING_PAYMENT,
+    // Order cancelled; waiting for the stock to be given back
+    COMPENSATING,
+    COMPLETED,
+    // Cancelled before anything had to be undone
+    FAILED,
+    // Cancelled and undone
+    COMPENSATED
+}
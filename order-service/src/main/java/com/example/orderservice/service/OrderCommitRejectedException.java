@@ -0,0 +1,12 @@
+package com.example.orderservice.service;
+
+/**
+ * Thrown when the group-commit queue is full and a new order can't be queued for saving.
+ * Clients should retry shortly.
+ */
+public class OrderCommitRejectedException extends RuntimeException {
+    
+    public OrderCommitRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.orderservice.service;
+
+/**
+ * Thrown when an order's batch was already being written but had not committed within
+ * order.group-commit.write-timeout-ms. The order may still be saved, so clients should look
+ * it up before placing it again. It is answered with 409 rather than a server error, so the
+ * idempotency key stays claimed and a retry with that key can't place the order twice.
+ */
+public class OrderCommitTimeoutException extends RuntimeException {
+    
+    public OrderCommitTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderLine;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.saga.CheckoutSagaOrchestrator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit for new orders. Request threads hand their order to a single writer thread
+ * and wait; the writer collects orders for up to order.group-commit.window-ms after the
+ * first one arrived, or until order.group-commit.max-batch are waiting, and saves them all
+ * in one transaction whose inserts go out as JDBC batches. Each order's checkout saga is
+ * started in that same transaction. Each caller returns once the transaction holding its
+ * order has committed, so a burst of orders pays for one commit instead of one per order.
+ * <p>
+ * The window is counted from the moment the oldest order was queued: while the writer is
+ * busy committing, the next batch fills up and is written straight away without waiting.
+ * If a batch fails, its orders are retried one by one so a single bad order only fails itself.
+ * When the queue is full, new orders are turned away with {@link OrderCommitRejectedException}.
+ * <p>
+ * Callers wait at most order.group-commit.write-timeout-ms. An order still queued by then is
+ * withdrawn and rejected, so it is never saved; one whose batch is already being written gets
+ * {@link OrderCommitTimeoutException}, since it may yet commit. Should the writer thread die,
+ * every order it left queued is failed and a new writer is started in its place.
+ */
+@Component
+public class OrderGroupCommitter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderGroupCommitter.class);
+    
+    // How long an idle writer blocks before rechecking whether it should stop
+    private static final long IDLE_POLL_MILLIS = 100;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private CheckoutSagaOrchestrator checkoutSagaOrchestrator;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${order.group-commit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${order.group-commit.window-ms:5}")
+    private long windowMillis;
+    
+    @Value("${order.group-commit.max-batch:50}")
+    private int maxBatchSize;
+    
+    @Value("${order.group-commit.queue-capacity:5000}")
+    private int queueCapacity;
+    
+    @Value("${order.group-commit.write-timeout-ms:10000}")
+    private long writeTimeoutMillis;
+    
+    private BlockingQueue<PendingOrder> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread writer;
+    private volatile boolean running;
+    
+    private DistributionSummary batchSizeSummary;
+    private Timer waitTimer;
+    private Timer commitTimer;
+    private Counter rejectedCounter;
+    private Counter fallbackCounter;
+    private Counter timeoutCounter;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        
+        batchSizeSummary = DistributionSummary.builder("order.group-commit.batch.size")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        waitTimer = Timer.builder("order.group-commit.wait")
+            .description("Time an order waited in the queue before its batch started writing")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        commitTimer = Timer.builder("order.group-commit.commit")
+            .description("Time to write and commit one batch")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        rejectedCounter = Counter.builder("order.group-commit.rejected").register(meterRegistry);
+        fallbackCounter = Counter.builder("order.group-commit.fallback").register(meterRegistry);
+        timeoutCounter = Counter.builder("order.group-commit.timeout").register(meterRegistry);
+        Gauge.builder("order.group-commit.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        
+        if (enabled) {
+            running = true;
+            startWriter();
+            logger.info("Order group commit: window {} ms, max batch {}, queue capacity {}, write timeout {} ms",
+                windowMillis, maxBatchSize, queueCapacity, writeTimeoutMillis);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer != null) {
+            // The writer drains what is already queued before it exits
+            running = false;
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            failQueued(new OrderCommitRejectedException("Order service is shutting down, please retry"));
+        }
+    }
+    
+    /**
+     * Saves a new order and blocks until the batch it joined has committed.
+     * Returns the saved order, with its id and line ids assigned.
+     */
+    public Order write(Order order) {
+        if (!enabled) {
+            return transactionTemplate.execute(status -> save(order));
+        }
+        PendingOrder pending = enqueue(order);
+        try {
+            return pending.future.get(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw timedOut(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timedOut(pending);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Order group commit failed", e.getCause());
+        }
+    }
+    
+    public CompletableFuture<Order> submit(Order order) {
+        return enqueue(order).future;
+    }
+    
+    private PendingOrder enqueue(Order order) {
+        PendingOrder pending = new PendingOrder(order);
+        if (!running || !queue.offer(pending)) {
+            rejectedCounter.increment();
+            throw new OrderCommitRejectedException("Too many orders waiting to be saved, please retry");
+        }
+        return pending;
+    }
+    
+    private RuntimeException timedOut(PendingOrder pending) {
+        timeoutCounter.increment();
+        if (queue.remove(pending)) {
+            // Withdrawn before the writer took it, so it will never be saved
+            return new OrderCommitRejectedException("Order could not be saved in time, please retry");
+        }
+        logger.warn("Order still being saved after {} ms", writeTimeoutMillis);
+        return new OrderCommitTimeoutException(
+            "Your order may still be going through, please check your orders before placing it again");
+    }
+    
+    private void startWriter() {
+        writer = new CustomizableThreadFactory("order-commit-").newThread(this::run);
+        writer.start();
+    }
+    
+    private void run() {
+        Throwable failure = null;
+        try {
+            writeBatches();
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            if (running) {
+                // Not a shutdown: nothing would ever take the queued orders, so fail them and carry on
+                logger.error("Order group commit writer stopped unexpectedly, starting a new one", failure);
+                failQueued(new OrderCommitRejectedException("Order could not be saved, please retry"));
+                startWriter();
+            }
+        }
+    }
+    
+    private void failQueued(RuntimeException cause) {
+        List<PendingOrder> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.future.completeExceptionally(cause));
+    }
+    
+    private void writeBatches() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.queuedAt + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+                return;
+            } catch (RuntimeException e) {
+                // commit() completes every future itself; this only keeps the writer alive
+                logger.error("Order group commit writer failed", e);
+            } catch (Error e) {
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+                throw e;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void commit(List<PendingOrder> batch) {
+        long start = System.nanoTime();
+        for (PendingOrder pending : batch) {
+            waitTimer.record(start - pending.queuedAt, TimeUnit.NANOSECONDS);
+        }
+        batchSizeSummary.record(batch.size());
+        
+        List<Order> orders = batch.stream().map(pending -> pending.order).collect(Collectors.toList());
+        List<Order> saved;
+        try {
+            saved = transactionTemplate.execute(status -> saveAll(orders));
+        } catch (RuntimeException e) {
+            logger.warn("Group commit of {} orders failed, saving them one by one", batch.size(), e);
+            commitOneByOne(batch);
+            return;
+        }
+        commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(saved.get(i));
+        }
+    }
+    
+    private void commitOneByOne(List<PendingOrder> batch) {
+        fallbackCounter.increment();
+        for (PendingOrder pending : batch) {
+            // The rolled-back attempt already gave the entities ids and a version; start them afresh
+            resetIdentity(pending.order);
+            try {
+                pending.future.complete(transactionTemplate.execute(status -> save(pending.order)));
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    private Order save(Order order) {
+        Order saved = orderRepository.save(order);
+        checkoutSagaOrchestrator.start(saved);
+        return saved;
+    }
+    
+    private List<Order> saveAll(List<Order> orders) {
+        List<Order> saved = orderRepository.saveAll(orders);
+        saved.forEach(checkoutSagaOrchestrator::start);
+        return saved;
+    }
+    
+    private void resetIdentity(Order order) {
+        order.setId(null);
+        order.setVersion(null);
+        for (OrderLine line : order.getLines()) {
+            line.setId(null);
+        }
+    }
+    
+    private static final class PendingOrder {
+        
+        private final Order order;
+        private final long queuedAt = System.nanoTime();
+        private final CompletableFuture<Order> future = new CompletableFuture<>();
+        
+        private PendingOrder(Order order) {
+            this.order = order;
+        }
+    }
+}
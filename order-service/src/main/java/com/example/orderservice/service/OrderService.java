@@ -0,0 +1,110 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderLineRequest;
+import com.example.orderservice.dto.OrderLineResponse;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderLine;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.saga.CheckoutSagaOrchestrator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Places orders. Placing an order only writes it, group-committed with other concurrent
+ * orders by {@link OrderGroupCommitter}, together with the start of its checkout saga; the
+ * caller gets the PENDING order back as soon as that commit is done. Stock and payment are
+ * handled afterwards by {@link CheckoutSagaOrchestrator}, which moves the order on to
+ * CONFIRMED or CANCELLED.
+ */
+@Service
+public class OrderService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderGroupCommitter orderGroupCommitter;
+    
+    @Value("${order.list.max-size:100}")
+    private int maxListSize;
+    
+    public OrderResponse placeOrder(Long userId, OrderRequest request) {
+        Order order = new Order(userId);
+        mergeQuantities(request).forEach((productId, quantity) -> order.addLine(new OrderLine(productId, quantity)));
+        
+        Order saved = orderGroupCommitter.write(order);
+        logger.debug("Placed order {} for user {} with {} lines", saved.getId(), userId, saved.getLines().size());
+        return convertToResponse(saved);
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderResponse getOrder(Long id, Long userId, boolean admin) {
+        Order order = orderRepository.findById(id)
+            .filter(o -> admin || o.getUserId().equals(userId))
+            .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + id));
+        return convertToResponse(order);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersForUser(Long userId, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), maxListSize);
+        return orderRepository.findByUserIdOrderByIdDesc(userId, PageRequest.of(Math.max(page, 0), pageSize)).stream()
+            .map(this::convertToResponse)
+            .collect(Collectors.toList());
+    }
+    
+    // One line per product, so a product listed twice is reserved and priced once
+    private Map<Long, Integer> mergeQuantities(OrderRequest request) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderLineRequest line : request.getItems()) {
+            Long productId = line.getProductId();
+            try {
+                quantities.merge(productId, line.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Quantity for product " + productId + " is too large");
+            }
+        }
+        quantities.forEach((productId, quantity) -> {
+            if (quantity <= 0 || quantity > OrderLineRequest.MAX_QUANTITY) {
+                throw new IllegalArgumentException("Quantity for product " + productId + " must be between 1 and "
+                    + OrderLineRequest.MAX_QUANTITY);
+            }
+        });
+        return quantities;
+    }
+    
+    private OrderResponse convertToResponse(Order order) {
+        List<OrderLineResponse> items = order.getLines().stream()
+            .map(line -> new OrderLineResponse(
+                line.getProductId(),
+                line.getProductName(),
+                line.getUnitPrice(),
+                line.getQuantity(),
+                line.getLineTotal()))
+            .collect(Collectors.toList());
+        return new OrderResponse(
+            order.getId(),
+            order.getUserId(),
+            order.getStatus(),
+            order.getTotalAmount(),
+            items,
+            order.getCreatedAt(),
+            order.getUpdatedAt()
+        );
+    }
+}
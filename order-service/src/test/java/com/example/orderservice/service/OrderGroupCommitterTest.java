@@ -0,0 +1,122 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.saga.CheckoutSagaOrchestrator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderGroupCommitterTest {
+    
+    private OrderRepository orderRepository;
+    private OrderGroupCommitter committer;
+    
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        
+        committer = new OrderGroupCommitter();
+        ReflectionTestUtils.setField(committer, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(committer, "checkoutSagaOrchestrator", mock(CheckoutSagaOrchestrator.class));
+        ReflectionTestUtils.setField(committer, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(committer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(committer, "windowMillis", 1L);
+        ReflectionTestUtils.setField(committer, "maxBatchSize", 50);
+        ReflectionTestUtils.setField(committer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(committer, "writeTimeoutMillis", 200L);
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        committer.shutdown();
+    }
+    
+    @Test
+    void orderStillQueuedAtTheTimeoutIsWithdrawn() {
+        // No writer: nothing ever takes the order off the queue
+        ReflectionTestUtils.setField(committer, "enabled", false);
+        committer.init();
+        ReflectionTestUtils.setField(committer, "enabled", true);
+        ReflectionTestUtils.setField(committer, "running", true);
+        
+        assertThrows(OrderCommitRejectedException.class, () -> committer.write(new Order()));
+        assertTrue(queue().isEmpty());
+    }
+    
+    @Test
+    void orderInAStuckBatchTimesOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return invocation.getArgument(0);
+        });
+        start();
+        
+        try {
+            assertThrows(OrderCommitTimeoutException.class, () -> committer.write(new Order()));
+        } finally {
+            release.countDown();
+        }
+    }
+    
+    @Test
+    void deadWriterFailsQueuedOrdersAndIsReplaced() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        when(orderRepository.saveAll(anyList()))
+            .thenAnswer(invocation -> {
+                writing.countDown();
+                fail.await();
+                throw new StackOverflowError();
+            })
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        start();
+        
+        CompletableFuture<Order> dying = committer.submit(new Order());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Order> queued = committer.submit(new Order());
+        fail.countDown();
+        
+        ExecutionException dyingFailure = assertThrows(ExecutionException.class, () -> dying.get(5, TimeUnit.SECONDS));
+        assertTrue(dyingFailure.getCause() instanceof StackOverflowError);
+        ExecutionException queuedFailure = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertTrue(queuedFailure.getCause() instanceof OrderCommitRejectedException);
+        
+        // The replacement writer keeps taking orders
+        Order order = new Order();
+        assertSame(order, committer.write(order));
+        assertEquals(0, queue().size());
+    }
+    
+    private void start() {
+        ReflectionTestUtils.setField(committer, "enabled", true);
+        committer.init();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private BlockingQueue<Object> queue() {
+        return (BlockingQueue<Object>) ReflectionTestUtils.getField(committer, "queue");
+    }
+}
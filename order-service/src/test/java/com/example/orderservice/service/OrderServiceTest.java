@@ -0,0 +1,59 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderLineRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTest {
+    
+    private OrderGroupCommitter committer;
+    private OrderService orderService;
+    
+    @BeforeEach
+    void setUp() {
+        committer = mock(OrderGroupCommitter.class);
+        when(committer.write(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderGroupCommitter", committer);
+    }
+    
+    @Test
+    void linesForTheSameProductAreMerged() {
+        OrderRequest request = request(new OrderLineRequest(1L, 2), new OrderLineRequest(1L, 3));
+        
+        assertEquals(5, orderService.placeOrder(7L, request).getItems().get(0).getQuantity());
+    }
+    
+    @Test
+    void mergedQuantitiesThatOverflowAreRefused() {
+        OrderRequest request = request(new OrderLineRequest(1L, Integer.MAX_VALUE), new OrderLineRequest(1L, Integer.MAX_VALUE));
+        
+        assertThrows(IllegalArgumentException.class, () -> orderService.placeOrder(7L, request));
+        verify(committer, never()).write(any(Order.class));
+    }
+    
+    @Test
+    void mergedQuantitiesAboveTheLimitAreRefused() {
+        OrderRequest request = request(new OrderLineRequest(1L, OrderLineRequest.MAX_QUANTITY),
+            new OrderLineRequest(1L, 1));
+        
+        assertThrows(IllegalArgumentException.class, () -> orderService.placeOrder(7L, request));
+    }
+    
+    private static OrderRequest request(OrderLineRequest... lines) {
+        return new OrderRequest(Arrays.asList(lines));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.service.PaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/payments")
+@CrossOrigin(origins = "*")
+public class PaymentController {
+    
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String USER_ROLE_HEADER = "X-User-Role";
+    
+    @Autowired
+    private PaymentService paymentService;
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<PaymentResponse> getPaymentById(@PathVariable Long id,
+                                                          @RequestHeader(USER_ID_HEADER) Long userId,
+                                                          @RequestHeader(value = USER_ROLE_HEADER, required = false) String role) {
+        try {
+            PaymentResponse response = paymentService.getPayment(id, userId, "ADMIN".equals(role));
+            return ResponseEntity.ok(response);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/order/{orderId}")
+    public ResponseEntity<List<PaymentResponse>> getPaymentsByOrder(@PathVariable Long orderId,
+                                                                    @RequestHeader(USER_ID_HEADER) Long userId,
+                                                                    @RequestHeader(value = USER_ROLE_HEADER, required = false) String role) {
+        try {
+            return ResponseEntity.ok(paymentService.getPaymentsForOrder(orderId, userId, "ADMIN".equals(role)));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/health")
+    public ResponseEntity<String> health() {
+        return ResponseEntity.ok("Payment Service is running!");
+    }
+}
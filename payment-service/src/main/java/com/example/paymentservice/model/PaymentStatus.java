@@ -0,0 +1,8 @@
+package com.example.paymentservice.model;
+
+public enum PaymentStatus {
+    AUTHORIZED,
+    DECLINED,
+    CAPTURED,
+    VOIDED
+}
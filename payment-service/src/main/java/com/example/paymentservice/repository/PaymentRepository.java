@@ -0,0 +1,13 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.model.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    
+    List<Payment> findByOrderIdOrderByIdDesc(Long orderId);
+}
@@ -0,0 +1,82 @@
+package com.example.paymentservice.service;
+
+import com.example.common.messaging.EventHandler;
+import com.example.common.messaging.EventMessage;
+import com.example.common.messaging.EventTypes;
+import com.example.common.messaging.Outbox;
+import com.example.paymentservice.dto.AuthorizePaymentCommand;
+import com.example.paymentservice.dto.PaymentEvent;
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.dto.VoidPaymentCommand;
+import com.example.paymentservice.model.PaymentStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Carries out the payment step of order-service's checkout saga. AuthorizePayment answers
+ * PaymentAuthorized or PaymentDeclined; VoidPayment, the compensation for a checkout that
+ * timed out, voids what was authorized and answers PaymentVoided for each payment voided.
+ * Each answer commits together with the payment itself.
+ */
+@Component
+public class CheckoutPaymentHandler implements EventHandler {
+    
+    @Autowired
+    private PaymentService paymentService;
+    
+    @Autowired
+    private Outbox outbox;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Override
+    public Set<String> getEventTypes() {
+        return Set.of(EventTypes.AUTHORIZE_PAYMENT, EventTypes.VOID_PAYMENT);
+    }
+    
+    @Override
+    public void handle(EventMessage event) {
+        switch (event.getType()) {
+            case EventTypes.AUTHORIZE_PAYMENT:
+                authorize(read(event, AuthorizePaymentCommand.class));
+                break;
+            case EventTypes.VOID_PAYMENT:
+                voidPayments(read(event, VoidPaymentCommand.class));
+                break;
+            default:
+                throw new IllegalArgumentException("Unexpected event type " + event.getType());
+        }
+    }
+    
+    private void authorize(AuthorizePaymentCommand command) {
+        PaymentResponse payment = paymentService.authorizeForOrder(command.getOrderId(), command.getUserId(),
+            command.getAmount());
+        String outcome = payment.getStatus() == PaymentStatus.AUTHORIZED
+            ? EventTypes.PAYMENT_AUTHORIZED
+            : EventTypes.PAYMENT_DECLINED;
+        outbox.append(outcome, "Order", command.getOrderId(), toEvent(payment));
+    }
+    
+    private void voidPayments(VoidPaymentCommand command) {
+        for (PaymentResponse payment : paymentService.voidForOrder(command.getOrderId())) {
+            outbox.append(EventTypes.PAYMENT_VOIDED, "Order", command.getOrderId(), toEvent(payment));
+        }
+    }
+    
+    private PaymentEvent toEvent(PaymentResponse payment) {
+        return new PaymentEvent(payment.getOrderId(), payment.getUserId(), payment.getId(), payment.getAmount());
+    }
+    
+    private <T> T read(EventMessage event, Class<T> payloadType) {
+        try {
+            return objectMapper.treeToValue(event.getPayload(), payloadType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable " + event.getType() + " payload", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.dto.PaymentRequest;
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.model.PaymentStatus;
+import com.example.paymentservice.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityNotFoundException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class PaymentService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+    
+    // Checkouts are charged to the customer's account; there is no method to choose yet
+    private static final String CHECKOUT_PAYMENT_METHOD = "ACCOUNT";
+    
+    // There is no card processor behind this service yet; amounts above the limit, or not above zero, are declined
+    @Value("${payment.authorization.limit:10000}")
+    private BigDecimal authorizationLimit;
+    
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
+    public PaymentResponse authorize(Long userId, PaymentRequest request) {
+        Payment payment = new Payment(request.getOrderId(), userId, request.getAmount(), request.getPaymentMethod());
+        // Checked here, since the saga's amounts come straight from the order and are not validated as a request
+        boolean authorizable = request.getAmount().signum() > 0 && request.getAmount().compareTo(authorizationLimit) <= 0;
+        payment.setStatus(authorizable ? PaymentStatus.AUTHORIZED : PaymentStatus.DECLINED);
+        Payment savedPayment = paymentRepository.save(payment);
+        logger.debug("Payment {} for order {}: {}", savedPayment.getId(), savedPayment.getOrderId(), savedPayment.getStatus());
+        return convertToResponse(savedPayment);
+    }
+    
+    // Authorizes a checkout's amount once its stock is reserved; the same limit applies as for authorize
+    public PaymentResponse authorizeForOrder(Long orderId, Long userId, BigDecimal amount) {
+        return authorize(userId, new PaymentRequest(orderId, amount, CHECKOUT_PAYMENT_METHOD));
+    }
+    
+    // Voids the order's authorized payments, e.g. when its checkout timed out; returns those voided
+    public List<PaymentResponse> voidForOrder(Long orderId) {
+        List<PaymentResponse> voided = new ArrayList<>();
+        for (Payment payment : paymentRepository.findByOrderIdOrderByIdDesc(orderId)) {
+            if (payment.getStatus() == PaymentStatus.AUTHORIZED) {
+                payment.setStatus(PaymentStatus.VOIDED);
+                voided.add(convertToResponse(payment));
+            }
+        }
+        return voided;
+    }
+    
+    // Someone else's payment is reported as not found, so callers can't probe for ids
+    @Transactional(readOnly = true)
+    public PaymentResponse getPayment(Long id, Long userId, boolean admin) {
+        Payment payment = paymentRepository.findById(id)
+            .filter(p -> admin || userId.equals(p.getUserId()))
+            .orElseThrow(() -> new EntityNotFoundException("Payment not found with id: " + id));
+        return convertToResponse(payment);
+    }
+    
+    // Payments for an order that isn't the caller's are reported as not found, like the order itself
+    @Transactional(readOnly = true)
+    public List<PaymentResponse> getPaymentsForOrder(Long orderId, Long userId, boolean admin) {
+        List<Payment> payments = paymentRepository.findByOrderIdOrderByIdDesc(orderId);
+        if (!admin && payments.stream().anyMatch(p -> !userId.equals(p.getUserId()))) {
+            throw new EntityNotFoundException("Payments not found for order: " + orderId);
+        }
+        return payments.stream()
+            .map(this::convertToResponse)
+            .collect(Collectors.toList());
+    }
+    
+    private PaymentResponse convertToResponse(Payment payment) {
+        return new PaymentResponse(
+            payment.getId(),
+            payment.getOrderId(),
+            payment.getUserId(),
+            payment.getAmount(),
+            payment.getPaymentMethod(),
+            payment.getStatus(),
+            payment.getCreatedAt(),
+            payment.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.dto.PaymentRequest;
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.model.PaymentStatus;
+import com.example.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaymentOwnershipTest {
+    
+    private static final long OWNER = 7L;
+    private static final long OTHER = 8L;
+    
+    private static final AtomicLong ORDER_IDS = new AtomicLong(1000);
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private PaymentService paymentService;
+    
+    private Long orderId;
+    private PaymentResponse payment;
+    
+    @BeforeEach
+    void setUp() {
+        orderId = ORDER_IDS.incrementAndGet();
+        payment = paymentService.authorize(OWNER, new PaymentRequest(orderId, new BigDecimal("25.00"), "CARD"));
+    }
+    
+    @Test
+    void ownerCanReadTheirPayment() throws Exception {
+        mockMvc.perform(get("/api/payments/{id}", payment.getId()).header("X-User-Id", OWNER))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(payment.getId()));
+        mockMvc.perform(get("/api/payments/order/{orderId}", orderId).header("X-User-Id", OWNER))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+    
+    @Test
+    void otherUsersCannotReadThePayment() throws Exception {
+        mockMvc.perform(get("/api/payments/{id}", payment.getId()).header("X-User-Id", OTHER))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/payments/order/{orderId}", orderId).header("X-User-Id", OTHER))
+            .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void adminsCanReadAnyPayment() throws Exception {
+        mockMvc.perform(get("/api/payments/{id}", payment.getId()).header("X-User-Id", OTHER).header("X-User-Role", "ADMIN"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/payments/order/{orderId}", orderId).header("X-User-Id", OTHER).header("X-User-Role", "ADMIN"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+    
+    @Test
+    void readsWithoutACallerAreRejected() throws Exception {
+        mockMvc.perform(get("/api/payments/{id}", payment.getId()))
+            .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void paymentsCannotBeCreatedOverHttp() throws Exception {
+        // Payments are only taken by the checkout saga, which knows the order is the caller's
+        mockMvc.perform(post("/api/payments")
+                .header("X-User-Id", OTHER)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"orderId\": " + orderId + ", \"amount\": 10.00, \"paymentMethod\": \"CARD\"}"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/payments/order/{orderId}", orderId).header("X-User-Id", OWNER))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+    
+    @Test
+    void amountsThatAreNotPositiveAreDeclined() {
+        PaymentResponse negative = paymentService.authorizeForOrder(orderId, OWNER, new BigDecimal("-19.98"));
+        PaymentResponse zero = paymentService.authorizeForOrder(orderId, OWNER, BigDecimal.ZERO);
+        
+        assertEquals(PaymentStatus.DECLINED, negative.getStatus());
+        assertEquals(PaymentStatus.DECLINED, zero.getStatus());
+    }
+}
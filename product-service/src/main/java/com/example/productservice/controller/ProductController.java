@@ -1,15 +1,26 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.dto.ProductImportResponse;
+import com.example.productservice.dto.ProductPageResponse;
 import com.example.productservice.dto.ProductRequest;
 import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.dto.StockBatchRequest;
+import com.example.productservice.dto.StockBatchResponse;
+import com.example.productservice.repository.ProductListing;
+import com.example.productservice.service.ProductImportService;
 import com.example.productservice.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.persistence.EntityNotFoundException;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -20,12 +31,22 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductImportService productImportService;
+    
     @PostMapping
     public ResponseEntity<ProductResponse> createProduct(@Valid @RequestBody ProductRequest request) {
         ProductResponse response = productService.createProduct(request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
+    // Body is read incrementally from the request stream, so feeds of any size can be posted
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<ProductImportResponse> importProducts(HttpServletRequest request) throws IOException {
+        ProductImportResponse response = productImportService.importProducts(request.getInputStream());
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
         try {
@@ -36,36 +57,109 @@ public class ProductController {
         }
     }
     
+    // fields=summary or fields=name,price,... narrows every listing below to those columns
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
+    public ResponseEntity<List<?>> getAllProducts(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listProducts(ProductListing.all(), fields);
+        }
         List<ProductResponse> products = productService.getAllProducts();
         return ResponseEntity.ok(products);
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageResponse<?>> getProductsPage(@RequestParam(required = false) Long cursor,
+                                                                  @RequestParam(required = false) Integer limit,
+                                                                  @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listProductsPage(ProductListing.all(), fields, cursor, limit);
+        }
+        return ResponseEntity.ok(productService.getProductsPage(cursor, limit));
+    }
+    
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productService::exportProducts;
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+    
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ProductResponse>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<?>> getProductsByCategory(@PathVariable String category,
+                                                         @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listProducts(ProductListing.category(category), fields);
+        }
         List<ProductResponse> products = productService.getProductsByCategory(category);
         return ResponseEntity.ok(products);
     }
     
+    @GetMapping("/category/{category}/page")
+    public ResponseEntity<ProductPageResponse<?>> getProductsPageByCategory(@PathVariable String category,
+                                                                            @RequestParam(required = false) Long cursor,
+                                                                            @RequestParam(required = false) Integer limit,
+                                                                            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listProductsPage(ProductListing.category(category), fields, cursor, limit);
+        }
+        return ResponseEntity.ok(productService.getProductsPageByCategory(category, cursor, limit));
+    }
+    
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<List<ProductResponse>> getProductsByBrand(@PathVariable String brand) {
+    public ResponseEntity<List<?>> getProductsByBrand(@PathVariable String brand,
+                                                      @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listProducts(ProductListing.brand(brand), fields);
+        }
         List<ProductResponse> products = productService.getProductsByBrand(brand);
         return ResponseEntity.ok(products);
     }
     
+    @GetMapping("/brand/{brand}/page")
+    public ResponseEntity<ProductPageResponse<?>> getProductsPageByBrand(@PathVariable String brand,
+                                                                         @RequestParam(required = false) Long cursor,
+                                                                         @RequestParam(required = false) Integer limit,
+                                                                         @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listProductsPage(ProductListing.brand(brand), fields, cursor, limit);
+        }
+        return ResponseEntity.ok(productService.getProductsPageByBrand(brand, cursor, limit));
+    }
+    
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String keyword) {
-        List<ProductResponse> products = productService.searchProducts(keyword);
+    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String keyword,
+                                                                @RequestParam(required = false) Integer limit) {
+        List<ProductResponse> products = productService.searchProducts(keyword, limit);
         return ResponseEntity.ok(products);
     }
     
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggestProducts(@RequestParam String prefix,
+                                                        @RequestParam(required = false) Integer limit) {
+        List<String> suggestions = productService.suggestProducts(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+    
     @GetMapping("/available")
-    public ResponseEntity<List<ProductResponse>> getAvailableProducts() {
+    public ResponseEntity<List<?>> getAvailableProducts(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listProducts(ProductListing.available(), fields);
+        }
         List<ProductResponse> products = productService.getAvailableProducts();
         return ResponseEntity.ok(products);
     }
     
+    @GetMapping("/available/page")
+    public ResponseEntity<ProductPageResponse<?>> getAvailableProductsPage(@RequestParam(required = false) Long cursor,
+                                                                           @RequestParam(required = false) Integer limit,
+                                                                           @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listProductsPage(ProductListing.available(), fields, cursor, limit);
+        }
+        return ResponseEntity.ok(productService.getAvailableProductsPage(cursor, limit));
+    }
+    
     @GetMapping("/low-stock")
     public ResponseEntity<List<ProductResponse>> getLowStockProducts(@RequestParam(defaultValue = "10") Integer threshold) {
         List<ProductResponse> products = productService.getLowStockProducts(threshold);
@@ -79,6 +173,9 @@ public class ProductController {
             return ResponseEntity.ok(response);
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            // Stock moved while the product was being edited
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
     
@@ -112,8 +209,34 @@ public class ProductController {
         }
     }
     
+    @PostMapping("/stock/check-batch")
+    public ResponseEntity<StockBatchResponse> checkStockBatch(@Valid @RequestBody StockBatchRequest request) {
+        try {
+            return ResponseEntity.ok(productService.checkStockBatch(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Product Service is running!");
     }
+    
+    private ResponseEntity<List<?>> listProducts(ProductListing listing, String fields) {
+        try {
+            return ResponseEntity.ok(productService.getProductList(listing, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    private ResponseEntity<ProductPageResponse<?>> listProductsPage(ProductListing listing, String fields,
+                                                                    Long cursor, Integer limit) {
+        try {
+            return ResponseEntity.ok(productService.getProductListPage(listing, fields, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 } 
\ No newline at end of file
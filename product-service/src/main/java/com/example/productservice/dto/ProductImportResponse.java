@@ -0,0 +1,57 @@
+package com.example.productservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportResponse {
+    
+    private long received;
+    private long imported;
+    private long failed;
+    private boolean aborted;
+    private List<ProductImportError> errors = new ArrayList<>();
+    
+    // Constructors
+    public ProductImportResponse() {}
+    
+    // Getters and Setters
+    public long getReceived() {
+        return received;
+    }
+    
+    public void setReceived(long received) {
+        this.received = received;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+    
+    public boolean isAborted() {
+        return aborted;
+    }
+    
+    public void setAborted(boolean aborted) {
+        this.aborted = aborted;
+    }
+    
+    public List<ProductImportError> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<ProductImportError> errors) {
+        this.errors = errors;
+    }
+}
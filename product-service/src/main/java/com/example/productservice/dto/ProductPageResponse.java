@@ -0,0 +1,35 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+// Keyset page of list items: full ProductResponses, ProductSummaries or sparse field maps
+public class ProductPageResponse<T> {
+    
+    private List<T> products;
+    private Long nextCursor;
+    
+    // Constructors
+    public ProductPageResponse() {}
+    
+    public ProductPageResponse(List<T> products, Long nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<T> getProducts() {
+        return products;
+    }
+    
+    public void setProducts(List<T> products) {
+        this.products = products;
+    }
+    
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
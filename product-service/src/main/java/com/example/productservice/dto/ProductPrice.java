@@ -0,0 +1,13 @@
+package com.example.productservice.dto;
+
+import java.math.BigDecimal;
+
+// Projection used to price reserved lines so only id, name and price are selected
+public interface ProductPrice {
+    
+    Long getId();
+    
+    String getName();
+    
+    BigDecimal getPrice();
+}
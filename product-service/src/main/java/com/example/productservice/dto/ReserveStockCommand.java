@@ -0,0 +1,44 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+public class ReserveStockCommand {
+    
+    private Long orderId;
+    private Long userId;
+    private List<StockItemRequest> items;
+    
+    // Constructors
+    public ReserveStockCommand() {}
+    
+    public ReserveStockCommand(Long orderId, Long userId, List<StockItemRequest> items) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.items = items;
+    }
+    
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public List<StockItemRequest> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<StockItemRequest> items) {
+        this.items = items;
+    }
+}
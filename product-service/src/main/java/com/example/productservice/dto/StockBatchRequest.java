@@ -0,0 +1,27 @@
+package com.example.productservice.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class StockBatchRequest {
+    
+    @NotEmpty(message = "At least one item is required")
+    private List<@Valid StockItemRequest> items;
+    
+    // Constructors
+    public StockBatchRequest() {}
+    
+    public StockBatchRequest(List<StockItemRequest> items) {
+        this.items = items;
+    }
+    
+    // Getters and Setters
+    public List<StockItemRequest> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<StockItemRequest> items) {
+        this.items = items;
+    }
+}
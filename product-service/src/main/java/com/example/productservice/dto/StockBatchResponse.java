@@ -0,0 +1,49 @@
+package com.example.productservice.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+public class StockBatchResponse {
+    
+    private boolean success;
+    private List<Long> unavailableProductIds;
+    private List<ReservedItem> items;
+    
+    // Constructors
+    public StockBatchResponse() {}
+    
+    public StockBatchResponse(boolean success, List<Long> unavailableProductIds) {
+        this(success, unavailableProductIds, Collections.emptyList());
+    }
+    
+    public StockBatchResponse(boolean success, List<Long> unavailableProductIds, List<ReservedItem> items) {
+        this.success = success;
+        this.unavailableProductIds = unavailableProductIds;
+        this.items = items;
+    }
+    
+    // Getters and Setters
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+    
+    public List<Long> getUnavailableProductIds() {
+        return unavailableProductIds;
+    }
+    
+    public void setUnavailableProductIds(List<Long> unavailableProductIds) {
+        this.unavailableProductIds = unavailableProductIds;
+    }
+    
+    public List<ReservedItem> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<ReservedItem> items) {
+        this.items = items;
+    }
+}
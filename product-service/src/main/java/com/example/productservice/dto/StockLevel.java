@@ -0,0 +1,9 @@
+package com.example.productservice.dto;
+
+// Projection used by batch stock lookups so only id and stock are selected
+public interface StockLevel {
+    
+    Long getId();
+    
+    Integer getStockQuantity();
+}
@@ -0,0 +1,55 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+// Outcome of reserving stock for an order: the priced items, or the products that were short
+public class StockReservationEvent {
+    
+    private Long orderId;
+    private Long userId;
+    private List<ReservedItem> items;
+    private List<Long> unavailableProductIds;
+    
+    // Constructors
+    public StockReservationEvent() {}
+    
+    public StockReservationEvent(Long orderId, Long userId, List<ReservedItem> items, List<Long> unavailableProductIds) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.items = items;
+        this.unavailableProductIds = unavailableProductIds;
+    }
+    
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public List<ReservedItem> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<ReservedItem> items) {
+        this.items = items;
+    }
+    
+    public List<Long> getUnavailableProductIds() {
+        return unavailableProductIds;
+    }
+    
+    public void setUnavailableProductIds(List<Long> unavailableProductIds) {
+        this.unavailableProductIds = unavailableProductIds;
+    }
+}
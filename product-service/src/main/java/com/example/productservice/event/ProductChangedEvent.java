@@ -0,0 +1,54 @@
+package com.example.productservice.event;
+
+import com.example.productservice.dto.ProductResponse;
+
+/**
+ * Published by ProductService whenever a product is created, modified or deactivated,
+ * so in-memory read models (search index, suggestions) can follow the catalog.
+ */
+public class ProductChangedEvent {
+    
+    private final Long productId;
+    private final ProductResponse product;
+    private final Integer stockDelta;
+    
+    private ProductChangedEvent(Long productId, ProductResponse product, Integer stockDelta) {
+        this.productId = productId;
+        this.product = product;
+        this.stockDelta = stockDelta;
+    }
+    
+    public static ProductChangedEvent updated(ProductResponse product) {
+        return new ProductChangedEvent(product.getId(), product, null);
+    }
+    
+    public static ProductChangedEvent removed(Long productId) {
+        return new ProductChangedEvent(productId, null, null);
+    }
+    
+    // Only the stock level moved; published by the atomic stock paths, which never load the entity
+    public static ProductChangedEvent stockAdjusted(Long productId, int stockDelta) {
+        return new ProductChangedEvent(productId, null, stockDelta);
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    // Current state of the product, or null when it was removed from the catalog
+    public ProductResponse getProduct() {
+        return product;
+    }
+    
+    public Integer getStockDelta() {
+        return stockDelta;
+    }
+    
+    public boolean isStockAdjustment() {
+        return stockDelta != null;
+    }
+    
+    public boolean isRemoved() {
+        return !isStockAdjustment() && (product == null || !Boolean.TRUE.equals(product.getActive()));
+    }
+}
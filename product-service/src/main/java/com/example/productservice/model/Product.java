@@ -8,11 +8,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_active_category", columnList = "active, category, id"),
+    @Index(name = "idx_products_active_brand", columnList = "active, brand, id"),
+    @Index(name = "idx_products_active_stock", columnList = "active, stock_quantity"),
+    @Index(name = "idx_products_active_id", columnList = "active, id")
+})
 public class Product {
     
+    // Pooled sequence ids (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Product name is required")
@@ -29,7 +36,7 @@ public class Product {
     
     @NotNull(message = "Stock quantity is required")
     @Positive(message = "Stock quantity must be positive")
-    @Column(nullable = false)
+    @Column(name = "stock_quantity", nullable = false)
     private Integer stockQuantity;
     
     @Column(nullable = false)
@@ -50,6 +57,9 @@ public class Product {
     @Column(nullable = false)
     private Boolean active = true;
     
+    @Version
+    private Long version;
+    
     // Constructors
     public Product() {
         this.createdAt = LocalDateTime.now();
@@ -156,6 +166,14 @@ public class Product {
         this.active = active;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
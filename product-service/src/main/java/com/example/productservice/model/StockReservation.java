@@ -0,0 +1,110 @@
+package com.example.productservice.model;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stock taken for one order, kept so that a release gives back exactly what was taken,
+ * and only once however often it is asked for.
+ */
+@Entity
+@Table(name = "stock_reservations")
+public class StockReservation implements Persistable<Long> {
+    
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StockReservationStatus status = StockReservationStatus.RESERVED;
+    
+    @ElementCollection
+    @CollectionTable(name = "stock_reservation_items", joinColumns = @JoinColumn(name = "order_id"))
+    private List<ReservedQuantity> items = new ArrayList<>();
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Ids are the order ids, so tell Spring Data a fresh record is an INSERT rather than a merge
+    @Transient
+    private boolean newRecord = true;
+    
+    // Constructors
+    public StockReservation() {}
+    
+    public StockReservation(Long orderId, List<ReservedQuantity> items) {
+        this.orderId = orderId;
+        this.items = items;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    @Override
+    public Long getId() {
+        return orderId;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.newRecord = false;
+    }
+    
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public StockReservationStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(StockReservationStatus status) {
+        this.status = status;
+    }
+    
+    public List<ReservedQuantity> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<ReservedQuantity> items) {
+        this.items = items;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
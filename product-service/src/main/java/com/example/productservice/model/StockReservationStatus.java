@@ -0,0 +1,6 @@
+package com.example.productservice.model;
+
+public enum StockReservationStatus {
+    RESERVED,
+    RELEASED
+}
@@ -0,0 +1,43 @@
+package com.example.productservice.repository;
+
+// Which active products a listing endpoint shows: all, one category, one brand or those in stock
+public final class ProductListing {
+    
+    private final String category;
+    private final String brand;
+    private final boolean availableOnly;
+    
+    private ProductListing(String category, String brand, boolean availableOnly) {
+        this.category = category;
+        this.brand = brand;
+        this.availableOnly = availableOnly;
+    }
+    
+    public static ProductListing all() {
+        return new ProductListing(null, null, false);
+    }
+    
+    public static ProductListing category(String category) {
+        return new ProductListing(category, null, false);
+    }
+    
+    public static ProductListing brand(String brand) {
+        return new ProductListing(null, brand, false);
+    }
+    
+    public static ProductListing available() {
+        return new ProductListing(null, null, true);
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public String getBrand() {
+        return brand;
+    }
+    
+    public boolean isAvailableOnly() {
+        return availableOnly;
+    }
+}
@@ -1,16 +1,32 @@
 package com.example.productservice.repository;
 
+import com.example.productservice.dto.ProductSummary;
+import com.example.productservice.dto.ProductPrice;
+import com.example.productservice.dto.StockLevel;
 import com.example.productservice.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    
+    // Constructor projection for list pages: no entities are hydrated and the description is cut in SQL
+    String SUMMARY_SELECT = "SELECT new com.example.productservice.dto.ProductSummary(p.id, p.name, " +
+                            "SUBSTRING(p.description, 1, " + ProductSummary.DESCRIPTION_LENGTH + "), p.price, " +
+                            "p.stockQuantity, p.category, p.brand, p.imageUrl) FROM Product p ";
     
     List<Product> findByActiveTrue();
     
@@ -30,6 +46,66 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.active = true AND p.stockQuantity <= :threshold")
     List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
     
+    // Keyset pagination: rows strictly after the cursor id, ordered by id, limited by the pageable size
+    List<Product> findByActiveTrueAndIdGreaterThanOrderByIdAsc(Long cursor, Pageable pageable);
+    
+    List<Product> findByCategoryAndActiveTrueAndIdGreaterThanOrderByIdAsc(String category, Long cursor, Pageable pageable);
+    
+    List<Product> findByBrandAndActiveTrueAndIdGreaterThanOrderByIdAsc(String brand, Long cursor, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.stockQuantity > 0 AND p.id > :cursor ORDER BY p.id")
+    List<Product> findAvailableProductsAfter(@Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.active = true ORDER BY p.id")
+    List<ProductSummary> findSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE p.active = true AND p.category = :category ORDER BY p.id")
+    List<ProductSummary> findSummariesByCategory(@Param("category") String category);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.active = true AND p.brand = :brand ORDER BY p.id")
+    List<ProductSummary> findSummariesByBrand(@Param("brand") String brand);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.active = true AND p.stockQuantity > 0 ORDER BY p.id")
+    List<ProductSummary> findAvailableSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE p.active = true AND p.id > :cursor ORDER BY p.id")
+    List<ProductSummary> findSummariesAfter(@Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.active = true AND p.category = :category AND p.id > :cursor ORDER BY p.id")
+    List<ProductSummary> findSummariesByCategoryAfter(@Param("category") String category, @Param("cursor") Long cursor,
+                                                      Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.active = true AND p.brand = :brand AND p.id > :cursor ORDER BY p.id")
+    List<ProductSummary> findSummariesByBrandAfter(@Param("brand") String brand, @Param("cursor") Long cursor,
+                                                   Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.active = true AND p.stockQuantity > 0 AND p.id > :cursor ORDER BY p.id")
+    List<ProductSummary> findAvailableSummariesAfter(@Param("cursor") Long cursor, Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Product p WHERE p.active = true ORDER BY p.id")
+    Stream<Product> streamActiveProducts();
+    
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id AND p.active = true")
+    Optional<Integer> findStockQuantity(@Param("id") Long id);
+    
+    @Query("SELECT p.id AS id, p.stockQuantity AS stockQuantity FROM Product p WHERE p.id IN :ids AND p.active = true")
+    List<StockLevel> findStockLevels(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price FROM Product p WHERE p.id IN :ids")
+    List<ProductPrice> findPrices(@Param("ids") Collection<Long> ids);
+    
+    // Conditional decrement: touches the row only if enough stock is left, so concurrent buyers can't oversell
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1, " +
+           "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id AND p.active = true AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.version = p.version + 1, " +
+           "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id AND p.active = true")
+    int incrementStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+    
     Optional<Product> findByIdAndActiveTrue(Long id);
     
     boolean existsByIdAndActiveTrue(Long id);
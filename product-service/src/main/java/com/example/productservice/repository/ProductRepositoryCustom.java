@@ -0,0 +1,26 @@
+package com.example.productservice.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+    
+    /**
+     * Applies a conditional stock decrement for every product in a single JDBC batch.
+     * Returns the ids whose row was not updated (missing, inactive or short on stock).
+     */
+    List<Long> decrementStockBatch(Map<Long, Integer> quantities);
+    
+    /**
+     * Puts stock back for every active product in a single JDBC batch, like incrementStock.
+     * Returns the ids whose row was not updated (missing or inactive).
+     */
+    List<Long> incrementStockBatch(Map<Long, Integer> quantities);
+    
+    /**
+     * Selects only the given Product attributes of a listing, ordered by id, as one map per row
+     * keyed by attribute name. The caller must pass validated attribute names. A null cursor
+     * and limit return the whole listing.
+     */
+    List<Map<String, Object>> findFields(List<String> fields, ProductListing listing, Long cursor, Integer limit);
+}
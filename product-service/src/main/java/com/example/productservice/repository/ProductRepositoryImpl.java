@@ -0,0 +1,120 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+    
+    static final String DECREMENT_STOCK_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity - ?, version = version + 1, " +
+        "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND active = TRUE AND stock_quantity >= ?";
+    
+    static final String INCREMENT_STOCK_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1, " +
+        "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND active = TRUE";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Long> decrementStockBatch(Map<Long, Integer> quantities) {
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Integer quantity = quantities.get(id);
+            args.add(new Object[] {quantity, id, quantity});
+        }
+        
+        // Runs on the connection of the surrounding JPA transaction
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, args);
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                failed.add(ids.get(i));
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public List<Long> incrementStockBatch(Map<Long, Integer> quantities) {
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[] {quantities.get(id), id});
+        }
+        
+        int[] counts = jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, args);
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missing.add(ids.get(i));
+            }
+        }
+        return missing;
+    }
+    
+    @Override
+    public List<Map<String, Object>> findFields(List<String> fields, ProductListing listing, Long cursor, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        
+        // A scalar select: rows come back as tuples, never as managed entities
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(product.get(field).alias(field));
+        }
+        query.multiselect(selections);
+        
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isTrue(product.get("active")));
+        if (listing.getCategory() != null) {
+            predicates.add(cb.equal(product.get("category"), listing.getCategory()));
+        }
+        if (listing.getBrand() != null) {
+            predicates.add(cb.equal(product.get("brand"), listing.getBrand()));
+        }
+        if (listing.isAvailableOnly()) {
+            predicates.add(cb.gt(product.get("stockQuantity"), 0));
+        }
+        if (cursor != null) {
+            predicates.add(cb.gt(product.get("id"), cursor));
+        }
+        query.where(predicates.toArray(new Predicate[0]))
+            .orderBy(cb.asc(product.get("id")));
+        
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (limit != null) {
+            typed.setMaxResults(limit);
+        }
+        List<Tuple> tuples = typed.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
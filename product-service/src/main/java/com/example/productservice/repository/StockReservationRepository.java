@@ -0,0 +1,9 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+}
@@ -0,0 +1,90 @@
+package com.example.productservice.service;
+
+import com.example.common.messaging.EventHandler;
+import com.example.common.messaging.EventMessage;
+import com.example.common.messaging.EventTypes;
+import com.example.common.messaging.Outbox;
+import com.example.productservice.dto.ReleaseStockCommand;
+import com.example.productservice.dto.ReserveStockCommand;
+import com.example.productservice.dto.StockBatchRequest;
+import com.example.productservice.dto.StockBatchResponse;
+import com.example.productservice.dto.StockReservationEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Carries out the stock steps of order-service's checkout saga. ReserveStock takes the stock
+ * and answers StockReserved, with the prices the items were taken at, or
+ * StockReservationFailed with the products that were short. ReleaseStock, the compensation,
+ * gives back whatever the order's reservation took and answers StockReleased. Each answer
+ * commits together with the stock change itself.
+ */
+@Component
+public class OrderStockHandler implements EventHandler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderStockHandler.class);
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private Outbox outbox;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Override
+    public Set<String> getEventTypes() {
+        return Set.of(EventTypes.RESERVE_STOCK, EventTypes.RELEASE_STOCK);
+    }
+    
+    @Override
+    public void handle(EventMessage event) {
+        switch (event.getType()) {
+            case EventTypes.RESERVE_STOCK:
+                reserve(read(event, ReserveStockCommand.class));
+                break;
+            case EventTypes.RELEASE_STOCK:
+                release(read(event, ReleaseStockCommand.class));
+                break;
+            default:
+                throw new IllegalArgumentException("Unexpected event type " + event.getType());
+        }
+    }
+    
+    private void reserve(ReserveStockCommand command) {
+        StockBatchResponse response = productService.reserveForOrder(command.getOrderId(),
+            new StockBatchRequest(command.getItems()));
+        if (response.isSuccess()) {
+            outbox.append(EventTypes.STOCK_RESERVED, "Order", command.getOrderId(), new StockReservationEvent(
+                command.getOrderId(), command.getUserId(), response.getItems(), Collections.emptyList()));
+        } else {
+            outbox.append(EventTypes.STOCK_RESERVATION_FAILED, "Order", command.getOrderId(), new StockReservationEvent(
+                command.getOrderId(), command.getUserId(), Collections.emptyList(), response.getUnavailableProductIds()));
+            logger.debug("No stock for order {}: {}", command.getOrderId(), response.getUnavailableProductIds());
+        }
+    }
+    
+    private void release(ReleaseStockCommand command) {
+        if (productService.releaseForOrder(command.getOrderId())) {
+            logger.debug("Released stock reserved for order {}", command.getOrderId());
+        }
+        outbox.append(EventTypes.STOCK_RELEASED, "Order", command.getOrderId(), new StockReservationEvent(
+            command.getOrderId(), null, Collections.emptyList(), Collections.emptyList()));
+    }
+    
+    private <T> T read(EventMessage event, Class<T> payloadType) {
+        try {
+            return objectMapper.treeToValue(event.getPayload(), payloadType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable " + event.getType() + " payload", e);
+        }
+    }
+}
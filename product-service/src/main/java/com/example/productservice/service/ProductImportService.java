@@ -0,0 +1,134 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductImportError;
+import com.example.productservice.dto.ProductImportResponse;
+import com.example.productservice.dto.ProductRequest;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk catalog import. Rows are read one at a time from a JSON array or NDJSON body,
+ * validated, and written in chunks, each chunk in its own transaction with JDBC batching.
+ * Bad rows are reported and skipped; the rest of the feed still goes in.
+ */
+@Service
+public class ProductImportService {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Value("${product.import.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${product.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+    
+    public ProductImportResponse importProducts(InputStream input) throws IOException {
+        ProductImportResponse result = new ProductImportResponse();
+        List<ProductRequest> chunk = new ArrayList<>(batchSize);
+        List<Long> chunkRows = new ArrayList<>(batchSize);
+        long row = 0;
+        
+        // readValues walks the elements of a top-level array, or whitespace-separated values (NDJSON)
+        try (MappingIterator<ProductRequest> rows = objectMapper.readerFor(ProductRequest.class).readValues(input)) {
+            while (true) {
+                ProductRequest request;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    request = rows.nextValue();
+                } catch (JsonParseException e) {
+                    // Malformed JSON: there is no reliable way to find where the next row starts
+                    recordError(result, row, e.getOriginalMessage());
+                    result.setAborted(true);
+                    break;
+                } catch (JsonMappingException e) {
+                    recordError(result, row, e.getOriginalMessage());
+                    continue;
+                }
+                
+                String violations = validate(request);
+                if (violations != null) {
+                    recordError(result, row, violations);
+                    continue;
+                }
+                
+                chunk.add(request);
+                chunkRows.add(row);
+                if (chunk.size() >= batchSize) {
+                    writeChunk(chunk, chunkRows, result);
+                }
+            }
+        }
+        
+        writeChunk(chunk, chunkRows, result);
+        result.setReceived(row);
+        return result;
+    }
+    
+    private void writeChunk(List<ProductRequest> chunk, List<Long> chunkRows, ProductImportResponse result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            result.setImported(result.getImported() + productService.saveImportedProducts(chunk));
+        } catch (RuntimeException e) {
+            // The chunk was rolled back as a whole; retry row by row to find the offending rows
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    productService.saveImportedProducts(Collections.singletonList(chunk.get(i)));
+                    result.setImported(result.getImported() + 1);
+                } catch (RuntimeException rowError) {
+                    recordError(result, chunkRows.get(i), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        chunkRows.clear();
+    }
+    
+    private String validate(ProductRequest request) {
+        if (request == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+    
+    private void recordError(ProductImportResponse result, long row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ProductImportError(row, message));
+        }
+    }
+}
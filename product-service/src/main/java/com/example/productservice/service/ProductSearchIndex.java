@@ -0,0 +1,270 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.event.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product name, brand, category and description.
+ * Every query term is matched as a token prefix and all terms must match (AND);
+ * results are ranked by field-weighted, idf-scaled term scores.
+ */
+@Component
+public class ProductSearchIndex {
+    
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float EXACT_TERM_BOOST = 1.5f;
+    
+    private static final Comparator<Map.Entry<Long, Float>> BY_SCORE =
+        Map.Entry.<Long, Float>comparingByValue().thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // term -> (product id -> weighted term frequency)
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, ProductResponse> documents = new HashMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    
+    // Changes seen since beginRebuild; replayed over the rebuilt index, since its snapshot may predate them
+    private List<ProductChangedEvent> pendingChanges;
+    
+    private volatile boolean ready;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    // Call before reading the catalog for rebuild, so changes made while it is read aren't lost
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void rebuild(Stream<ProductResponse> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentTerms.clear();
+            products.forEach(this::addDocument);
+            if (pendingChanges != null) {
+                pendingChanges.forEach(this::apply);
+                pendingChanges = null;
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void index(ProductResponse product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void adjustStock(Long productId, int delta) {
+        lock.writeLock().lock();
+        try {
+            ProductResponse current = documents.get(productId);
+            if (current == null) {
+                return;
+            }
+            // Replace rather than mutate: the old instance may be in the middle of serialization
+            documents.put(productId, new ProductResponse(
+                current.getId(),
+                current.getName(),
+                current.getDescription(),
+                current.getPrice(),
+                current.getStockQuantity() + delta,
+                current.getCategory(),
+                current.getBrand(),
+                current.getImageUrl(),
+                current.getCreatedAt(),
+                current.getUpdatedAt(),
+                current.getActive()
+            ));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void apply(ProductChangedEvent event) {
+        if (event.isStockAdjustment()) {
+            adjustStock(event.getProductId(), event.getStockDelta());
+        } else if (event.isRemoved()) {
+            remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+    
+    public List<ProductResponse> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String term : terms) {
+                Map<Long, Float> termScores = scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            
+            // Keep only the best `limit` matches in a min-heap instead of sorting every hit
+            PriorityQueue<Map.Entry<Long, Float>> top = new PriorityQueue<>(limit + 1, BY_SCORE);
+            for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            
+            List<ProductResponse> results = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                results.add(documents.get(top.poll().getKey()));
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    private Map<Long, Float> scoreTerm(String term) {
+        Map<Long, Float> scores = new HashMap<>();
+        Map<String, Map<Long, Float>> matches = postings.subMap(term, true, term + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<Long, Float>> match : matches.entrySet()) {
+            Map<Long, Float> docs = match.getValue();
+            float idf = (float) Math.log(1.0 + (double) documents.size() / docs.size());
+            float boost = match.getKey().equals(term) ? EXACT_TERM_BOOST : 1.0f;
+            for (Map.Entry<Long, Float> posting : docs.entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * idf * boost, Math::max);
+            }
+        }
+        return scores;
+    }
+    
+    private void addDocument(ProductResponse product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getBrand(), BRAND_WEIGHT);
+        addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        
+        Long id = product.getId();
+        for (Map.Entry<String, Float> weight : weights.entrySet()) {
+            postings.computeIfAbsent(weight.getKey(), term -> new HashMap<>()).put(id, weight.getValue());
+        }
+        documentTerms.put(id, weights.keySet());
+        documents.put(id, product);
+    }
+    
+    private void addField(Map<String, Float> weights, String text, float weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+    
+    private void removeDocument(Long productId) {
+        Set<String> terms = documentTerms.remove(productId);
+        documents.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(productId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
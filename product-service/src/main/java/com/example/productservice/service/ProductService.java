@@ -1,39 +1,142 @@
 package com.example.productservice.service;
 
+import com.example.productservice.dto.ProductPageResponse;
+import com.example.productservice.dto.ProductPrice;
 import com.example.productservice.dto.ProductRequest;
 import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.dto.ProductSummary;
+import com.example.productservice.dto.ReservedItem;
+import com.example.productservice.dto.StockBatchRequest;
+import com.example.productservice.dto.StockBatchResponse;
+import com.example.productservice.dto.StockItemRequest;
+import com.example.productservice.dto.StockLevel;
+import com.example.productservice.event.ProductChangedEvent;
 import com.example.productservice.model.Product;
+import com.example.productservice.model.ReservedQuantity;
+import com.example.productservice.model.StockReservation;
+import com.example.productservice.model.StockReservationStatus;
+import com.example.productservice.repository.ProductListing;
 import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.StockReservationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class ProductService {
     
+    private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    
+    public static final String PRODUCT_CACHE = "products";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_SEARCH_LIMIT = 50;
+    
+    // fields=summary selects the ProductSummary projection
+    public static final String SUMMARY_FIELDS = "summary";
+    
+    // Attributes a listing can be narrowed to with fields=; id is always included for links and paging
+    private static final List<String> SELECTABLE_FIELDS = Arrays.asList(
+        "id", "name", "description", "price", "stockQuantity", "category", "brand", "imageUrl",
+        "createdAt", "updatedAt", "active");
+    
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    
+    @Autowired
+    private ProductSuggestionIndex suggestionIndex;
+    
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    // Loads the in-memory read models once the sample data (if any) has been written. Requests are
+    // already being served, so the indexes hold on to changes made while the catalog is read and
+    // apply them again over the rebuilt copy instead of letting the older snapshot overwrite them
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndexes() {
+        searchIndex.beginRebuild();
+        suggestionIndex.beginRebuild();
+        List<ProductResponse> catalog;
+        try (Stream<Product> products = productRepository.streamActiveProducts()) {
+            catalog = products.map(this::convertToResponse).collect(Collectors.toList());
+        }
+        searchIndex.rebuild(catalog.stream());
+        suggestionIndex.rebuild(catalog.stream());
+    }
+    
+    @CachePut(cacheNames = PRODUCT_CACHE, key = "#result.id")
     public ProductResponse createProduct(ProductRequest request) {
-        Product product = new Product(
-            request.getName(),
-            request.getDescription(),
-            request.getPrice(),
-            request.getStockQuantity(),
-            request.getCategory(),
-            request.getBrand(),
-            request.getImageUrl()
-        );
-        
+        Product product = toEntity(request);
         Product savedProduct = productRepository.save(product);
-        return convertToResponse(savedProduct);
+        ProductResponse response = convertToResponse(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(response));
+        return response;
     }
     
+    // Persists one chunk of a bulk import in its own transaction; inserts are JDBC-batched on commit
+    public int saveImportedProducts(List<ProductRequest> requests) {
+        List<Product> products = requests.stream()
+            .map(this::toEntity)
+            .collect(Collectors.toList());
+        for (Product saved : productRepository.saveAll(products)) {
+            eventPublisher.publishEvent(ProductChangedEvent.updated(convertToResponse(saved)));
+        }
+        return products.size();
+    }
+    
+    @Cacheable(cacheNames = PRODUCT_CACHE, key = "#id")
+    @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
         Product product = productRepository.findByIdAndActiveTrue(id)
             .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
@@ -61,13 +164,29 @@ public class ProductService {
             .collect(Collectors.toList());
     }
     
-    public List<ProductResponse> searchProducts(String keyword) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ProductResponse> searchProducts(String keyword, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_SEARCH_LIMIT : Math.min(limit, MAX_PAGE_SIZE);
+        if (searchIndex.isReady()) {
+            return searchIndex.search(keyword, size);
+        }
+        
+        // Index is still loading at startup, fall back to the database
         List<Product> products = productRepository.searchProducts(keyword);
         return products.stream()
+            .limit(size)
             .map(this::convertToResponse)
             .collect(Collectors.toList());
     }
     
+    // Served entirely from memory, so no transaction (and no pooled connection) is opened
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<String> suggestProducts(String prefix, Integer limit) {
+        int size = limit == null || limit <= 0 ? ProductSuggestionIndex.MAX_SUGGESTIONS
+            : Math.min(limit, ProductSuggestionIndex.MAX_SUGGESTIONS);
+        return suggestionIndex.suggest(prefix, size);
+    }
+    
     public List<ProductResponse> getAvailableProducts() {
         List<Product> products = productRepository.findAvailableProducts();
         return products.stream()
@@ -75,6 +194,74 @@ public class ProductService {
             .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public ProductPageResponse<ProductResponse> getProductsPage(Long cursor, Integer limit) {
+        int size = pageSize(limit);
+        return toPage(productRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(
+            startAfter(cursor), PageRequest.of(0, size)), size);
+    }
+    
+    @Transactional(readOnly = true)
+    public ProductPageResponse<ProductResponse> getProductsPageByCategory(String category, Long cursor, Integer limit) {
+        int size = pageSize(limit);
+        return toPage(productRepository.findByCategoryAndActiveTrueAndIdGreaterThanOrderByIdAsc(
+            category, startAfter(cursor), PageRequest.of(0, size)), size);
+    }
+    
+    @Transactional(readOnly = true)
+    public ProductPageResponse<ProductResponse> getProductsPageByBrand(String brand, Long cursor, Integer limit) {
+        int size = pageSize(limit);
+        return toPage(productRepository.findByBrandAndActiveTrueAndIdGreaterThanOrderByIdAsc(
+            brand, startAfter(cursor), PageRequest.of(0, size)), size);
+    }
+    
+    @Transactional(readOnly = true)
+    public ProductPageResponse<ProductResponse> getAvailableProductsPage(Long cursor, Integer limit) {
+        int size = pageSize(limit);
+        return toPage(productRepository.findAvailableProductsAfter(
+            startAfter(cursor), PageRequest.of(0, size)), size);
+    }
+    
+    /**
+     * A listing narrowed to fields=summary or to a comma-separated list of attributes. Only those
+     * columns are selected and no entity is loaded, so nothing is tracked or dirty-checked.
+     */
+    @Transactional(readOnly = true)
+    public List<?> getProductList(ProductListing listing, String fields) {
+        if (SUMMARY_FIELDS.equals(fields)) {
+            return findSummaries(listing);
+        }
+        return productRepository.findFields(parseFields(fields), listing, null, null);
+    }
+    
+    @Transactional(readOnly = true)
+    public ProductPageResponse<?> getProductListPage(ProductListing listing, String fields, Long cursor, Integer limit) {
+        int size = pageSize(limit);
+        if (SUMMARY_FIELDS.equals(fields)) {
+            return toPage(findSummaries(listing, startAfter(cursor), PageRequest.of(0, size)), size, ProductSummary::getId);
+        }
+        List<Map<String, Object>> rows = productRepository.findFields(parseFields(fields), listing, startAfter(cursor), size);
+        return toPage(rows, size, row -> (Long) row.get("id"));
+    }
+    
+    /**
+     * Writes every active product as newline-delimited JSON while the rows are being read.
+     * Entities are detached once written so the persistence context does not grow with the catalog.
+     */
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream out) throws IOException {
+        try (Stream<Product> products = productRepository.streamActiveProducts()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(convertToResponse(product)));
+                out.write('\n');
+                entityManager.detach(product);
+            }
+        }
+        out.flush();
+    }
+    
     public List<ProductResponse> getLowStockProducts(Integer threshold) {
         List<Product> products = productRepository.findLowStockProducts(threshold);
         return products.stream()
@@ -82,6 +269,7 @@ public class ProductService {
             .collect(Collectors.toList());
     }
     
+    @CachePut(cacheNames = PRODUCT_CACHE, key = "#id")
     public ProductResponse updateProduct(Long id, ProductRequest request) {
         Product product = productRepository.findByIdAndActiveTrue(id)
             .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
@@ -95,31 +283,215 @@ public class ProductService {
         product.setImageUrl(request.getImageUrl());
         
         Product updatedProduct = productRepository.save(product);
-        return convertToResponse(updatedProduct);
+        ProductResponse response = convertToResponse(updatedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(response));
+        return response;
     }
     
+    @CacheEvict(cacheNames = PRODUCT_CACHE, key = "#id")
     public void deleteProduct(Long id) {
         Product product = productRepository.findByIdAndActiveTrue(id)
             .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
         
         product.setActive(false);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.removed(id));
     }
     
+    @CacheEvict(cacheNames = PRODUCT_CACHE, key = "#productId")
     public boolean updateStock(Long productId, Integer quantity) {
-        Product product = productRepository.findByIdAndActiveTrue(productId)
-            .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
+        if (quantity <= 0) {
+            // Non-positive quantities put stock back
+            if (productRepository.incrementStock(productId, -quantity) == 0) {
+                throw new EntityNotFoundException("Product not found with id: " + productId);
+            }
+            stockLedger.release(productId, -quantity);
+            eventPublisher.publishEvent(ProductChangedEvent.stockAdjusted(productId, -quantity));
+            return true;
+        }
         
-        int newStock = product.getStockQuantity() - quantity;
-        if (newStock < 0) {
+        if (!stockLedger.tryReserve(productId, quantity, () -> currentStock(productId))) {
             return false; // Insufficient stock
         }
+        if (productRepository.decrementStock(productId, quantity) == 0) {
+            // The database disagrees with the ledger (another instance sold it, or it was removed)
+            stockLedger.invalidate(productId);
+            return false;
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.stockAdjusted(productId, -quantity));
+        return true;
+    }
+    
+    @Transactional(readOnly = true)
+    public StockBatchResponse checkStockBatch(StockBatchRequest request) {
+        Map<Long, Integer> quantities = mergeQuantities(request);
+        Map<Long, Integer> stock = loadStockLevels(quantities.keySet());
         
-        product.setStockQuantity(newStock);
-        productRepository.save(product);
+        List<Long> unavailable = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            if (stock.getOrDefault(productId, 0) < quantity) {
+                unavailable.add(productId);
+            }
+        });
+        return new StockBatchResponse(unavailable.isEmpty(), unavailable);
+    }
+    
+    /**
+     * Reserves every line of a cart or none of them. Products the ledger does not track yet are
+     * loaded with one IN query, and the conditional decrements go to the database as one JDBC batch.
+     * Only reserveForOrder calls it, so every reservation is recorded against its order.
+     */
+    private StockBatchResponse reserveStockBatch(StockBatchRequest request) {
+        Map<Long, Integer> quantities = mergeQuantities(request);
+        List<Long> untracked = new ArrayList<>();
+        for (Long productId : quantities.keySet()) {
+            if (!stockLedger.isTracked(productId)) {
+                untracked.add(productId);
+            }
+        }
+        Map<Long, Integer> stock = untracked.isEmpty() ? Collections.emptyMap() : loadStockLevels(untracked);
+        
+        List<Long> unavailable = new ArrayList<>();
+        Map<Long, Integer> claimed = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> item : quantities.entrySet()) {
+            Long productId = item.getKey();
+            // Unknown ids come back null from the loader, so they are refused without being tracked
+            boolean reserved = stockLedger.tryReserve(productId, item.getValue(), () -> untracked.contains(productId)
+                ? stock.get(productId)
+                : productRepository.findStockQuantity(productId).orElse(null));
+            if (reserved) {
+                claimed.put(productId, item.getValue());
+            } else {
+                unavailable.add(productId);
+            }
+        }
+        
+        if (unavailable.isEmpty()) {
+            unavailable = productRepository.decrementStockBatch(quantities);
+            unavailable.forEach(stockLedger::invalidate);
+            if (!unavailable.isEmpty()) {
+                // Put back the lines that did go through
+                Map<Long, Integer> applied = new LinkedHashMap<>(quantities);
+                applied.keySet().removeAll(unavailable);
+                productRepository.incrementStockBatch(applied);
+            }
+        }
+        if (!unavailable.isEmpty()) {
+            // Nothing stays taken, yet the transaction is left usable: an event handler
+            // still commits its record of the failed reservation in it
+            claimed.keySet().removeAll(unavailable);
+            claimed.forEach(stockLedger::releaseOnCommit);
+            return new StockBatchResponse(false, unavailable);
+        }
+        
+        // The cache manager is transaction-aware (CacheConfig): evictions land after the commit
+        Cache productCache = cacheManager.getCache(PRODUCT_CACHE);
+        quantities.forEach((productId, quantity) -> {
+            if (productCache != null) {
+                productCache.evict(productId);
+            }
+            eventPublisher.publishEvent(ProductChangedEvent.stockAdjusted(productId, -quantity));
+        });
+        return new StockBatchResponse(true, Collections.emptyList(), priceReservation(quantities));
+    }
+    
+    // Gives back stock taken by reserveStockBatch; only releaseForOrder calls it, with a recorded reservation
+    private StockBatchResponse releaseStockBatch(StockBatchRequest request) {
+        Map<Long, Integer> quantities = mergeQuantities(request);
+        List<Long> missing = productRepository.incrementStockBatch(quantities);
+        
+        Cache productCache = cacheManager.getCache(PRODUCT_CACHE);
+        quantities.forEach((productId, quantity) -> {
+            if (missing.contains(productId)) {
+                return;
+            }
+            stockLedger.release(productId, quantity);
+            if (productCache != null) {
+                productCache.evict(productId);
+            }
+            eventPublisher.publishEvent(ProductChangedEvent.stockAdjusted(productId, quantity));
+        });
+        return new StockBatchResponse(missing.isEmpty(), missing);
+    }
+    
+    // Reserves the stock for an order and records what was taken, for releaseForOrder to give back
+    public StockBatchResponse reserveForOrder(Long orderId, StockBatchRequest request) {
+        StockBatchResponse response;
+        try {
+            response = reserveStockBatch(request);
+        } catch (IllegalArgumentException e) {
+            // Quantities no order can have; fail the reservation instead of having it redelivered
+            logger.warn("Refusing stock for order {}: {}", orderId, e.getMessage());
+            return new StockBatchResponse(false, request.getItems().stream()
+                .map(StockItemRequest::getProductId)
+                .distinct()
+                .collect(Collectors.toList()));
+        }
+        if (response.isSuccess()) {
+            List<ReservedQuantity> taken = response.getItems().stream()
+                .map(item -> new ReservedQuantity(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+            stockReservationRepository.save(new StockReservation(orderId, taken));
+        }
+        return response;
+    }
+    
+    // Gives back the stock reserved for an order; false if there was none left to give back
+    public boolean releaseForOrder(Long orderId) {
+        StockReservation reservation = stockReservationRepository.findById(orderId)
+            .filter(r -> r.getStatus() == StockReservationStatus.RESERVED)
+            .orElse(null);
+        if (reservation == null) {
+            return false;
+        }
+        List<StockItemRequest> items = reservation.getItems().stream()
+            .map(item -> new StockItemRequest(item.getProductId(), item.getQuantity()))
+            .collect(Collectors.toList());
+        releaseStockBatch(new StockBatchRequest(items));
+        reservation.setStatus(StockReservationStatus.RELEASED);
         return true;
     }
     
+    // One line per product; a total that overflows or isn't positive would turn a take into a give
+    private Map<Long, Integer> mergeQuantities(StockBatchRequest request) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (StockItemRequest item : request.getItems()) {
+            Long productId = item.getProductId();
+            try {
+                quantities.merge(productId, item.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Quantity for product " + productId + " is too large");
+            }
+        }
+        quantities.forEach((productId, quantity) -> {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity for product " + productId + " must be positive");
+            }
+        });
+        return quantities;
+    }
+    
+    private List<ReservedItem> priceReservation(Map<Long, Integer> quantities) {
+        Map<Long, ProductPrice> prices = productRepository.findPrices(quantities.keySet()).stream()
+            .collect(Collectors.toMap(ProductPrice::getId, Function.identity()));
+        List<ReservedItem> items = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            ProductPrice price = prices.get(productId);
+            items.add(new ReservedItem(productId, price.getName(), price.getPrice(), quantity));
+        });
+        return items;
+    }
+    
+    private Map<Long, Integer> loadStockLevels(Collection<Long> productIds) {
+        return productRepository.findStockLevels(productIds).stream()
+            .collect(Collectors.toMap(StockLevel::getId, StockLevel::getStockQuantity));
+    }
+    
+    private int currentStock(Long productId) {
+        return productRepository.findStockQuantity(productId)
+            .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
+    }
+    
     public boolean checkStockAvailability(Long productId, Integer quantity) {
         Product product = productRepository.findByIdAndActiveTrue(productId)
             .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
@@ -127,6 +499,84 @@ public class ProductService {
         return product.getStockQuantity() >= quantity;
     }
     
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    private long startAfter(Long cursor) {
+        return cursor == null ? 0L : cursor;
+    }
+    
+    private ProductPageResponse<ProductResponse> toPage(List<Product> products, int size) {
+        List<ProductResponse> content = products.stream()
+            .map(this::convertToResponse)
+            .collect(Collectors.toList());
+        return toPage(content, size, ProductResponse::getId);
+    }
+    
+    private <T> ProductPageResponse<T> toPage(List<T> items, int size, Function<T, Long> idOf) {
+        // A full page means there may be more rows after the last id
+        Long nextCursor = items.size() == size ? idOf.apply(items.get(items.size() - 1)) : null;
+        return new ProductPageResponse<>(items, nextCursor);
+    }
+    
+    private List<ProductSummary> findSummaries(ProductListing listing) {
+        if (listing.getCategory() != null) {
+            return productRepository.findSummariesByCategory(listing.getCategory());
+        }
+        if (listing.getBrand() != null) {
+            return productRepository.findSummariesByBrand(listing.getBrand());
+        }
+        if (listing.isAvailableOnly()) {
+            return productRepository.findAvailableSummaries();
+        }
+        return productRepository.findSummaries();
+    }
+    
+    private List<ProductSummary> findSummaries(ProductListing listing, long cursor, Pageable pageable) {
+        if (listing.getCategory() != null) {
+            return productRepository.findSummariesByCategoryAfter(listing.getCategory(), cursor, pageable);
+        }
+        if (listing.getBrand() != null) {
+            return productRepository.findSummariesByBrandAfter(listing.getBrand(), cursor, pageable);
+        }
+        if (listing.isAvailableOnly()) {
+            return productRepository.findAvailableSummariesAfter(cursor, pageable);
+        }
+        return productRepository.findSummariesAfter(cursor, pageable);
+    }
+    
+    // Whitelisted so request input never reaches the criteria query as an arbitrary attribute name
+    private List<String> parseFields(String fields) {
+        Set<String> requested = Arrays.stream(fields.split(","))
+            .map(String::trim)
+            .filter(field -> !field.isEmpty())
+            .collect(Collectors.toSet());
+        for (String field : requested) {
+            if (!SELECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown product field: " + field);
+            }
+        }
+        return SELECTABLE_FIELDS.stream()
+            .filter(field -> field.equals("id") || requested.contains(field))
+            .collect(Collectors.toList());
+    }
+    
+    private Product toEntity(ProductRequest request) {
+        return new Product(
+            request.getName(),
+            request.getDescription(),
+            request.getPrice(),
+            request.getStockQuantity(),
+            request.getCategory(),
+            request.getBrand(),
+            request.getImageUrl()
+        );
+    }
+    
     private ProductResponse convertToResponse(Product product) {
         return new ProductResponse(
             product.getId(),
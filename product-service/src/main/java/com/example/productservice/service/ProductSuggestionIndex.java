@@ -0,0 +1,407 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.event.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Radix (path-compressed) trie over product names, brands and categories for typeahead
+ * suggestions. Every term is indexed from the start of each of its words, so "pro" finds
+ * "Apple iPhone 13 Pro". Chains of single-child nodes are collapsed into one edge, which
+ * keeps the node count proportional to the number of distinct keys rather than to their
+ * characters. Each node keeps its best completions precomputed, so a lookup is a walk down
+ * the prefix plus an array copy. Readers never lock: nodes are republished, never mutated
+ * in place, by the (single) writer on every change.
+ */
+@Component
+public class ProductSuggestionIndex {
+    
+    public static final int MAX_SUGGESTIONS = 10;
+    
+    private static final Completion[] NO_COMPLETIONS = new Completion[0];
+    
+    // Most frequent first, then alphabetical
+    private static final Comparator<Completion> BY_RANK =
+        Comparator.comparingInt((Completion c) -> c.score).reversed().thenComparing(c -> c.text);
+    
+    private volatile Node root = new Node("");
+    
+    // Terms each product contributed, so updates and removals can be undone exactly
+    private final Map<Long, List<String>> productTerms = new HashMap<>();
+    
+    // Changes seen since beginRebuild; replayed over the rebuilt trie, since its snapshot may predate them
+    private List<ProductChangedEvent> pendingChanges;
+    
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null) {
+                return Collections.emptyList();
+            }
+            int common = commonPrefix(child.label, key, matched);
+            if (matched + common == key.length()) {
+                // The query ends inside (or at the end of) this edge
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return Collections.emptyList();
+            }
+            matched += common;
+            node = child;
+        }
+        
+        Completion[] top = node.top;
+        int size = Math.min(limit, top.length);
+        List<String> suggestions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            suggestions.add(top[i].text);
+        }
+        return suggestions;
+    }
+    
+    // Call before reading the catalog for rebuild, so changes made while it is read aren't lost
+    public synchronized void beginRebuild() {
+        pendingChanges = new ArrayList<>();
+    }
+    
+    public synchronized void rebuild(Stream<ProductResponse> products) {
+        Node newRoot = new Node("");
+        productTerms.clear();
+        products.forEach(product -> {
+            List<String> terms = termsOf(product);
+            productTerms.put(product.getId(), terms);
+            for (String term : terms) {
+                for (String key : keysOf(term)) {
+                    insert(newRoot, key, term, 1);
+                }
+            }
+        });
+        recomputeSubtree(newRoot);
+        root = newRoot;
+        if (pendingChanges != null) {
+            pendingChanges.forEach(this::apply);
+            pendingChanges = null;
+        }
+    }
+    
+    public synchronized void index(ProductResponse product) {
+        List<String> terms = termsOf(product);
+        List<String> previous = productTerms.put(product.getId(), terms);
+        if (terms.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            previous.forEach(term -> adjust(term, -1));
+        }
+        terms.forEach(term -> adjust(term, 1));
+    }
+    
+    public synchronized void remove(Long productId) {
+        List<String> previous = productTerms.remove(productId);
+        if (previous != null) {
+            previous.forEach(term -> adjust(term, -1));
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.isStockAdjustment()) {
+            return;
+        }
+        if (pendingChanges != null) {
+            pendingChanges.add(event);
+        }
+        apply(event);
+    }
+    
+    private void apply(ProductChangedEvent event) {
+        if (event.isRemoved()) {
+            remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+    
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    // The normalized term from the start of each word: "apple iphone 13" -> itself, "iphone 13", "13"
+    static List<String> keysOf(String term) {
+        String normalized = normalize(term);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(normalized.charAt(i))
+                && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)));
+            if (wordStart) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        if (keys.isEmpty() && !normalized.isEmpty()) {
+            keys.add(normalized);
+        }
+        return keys;
+    }
+    
+    private List<String> termsOf(ProductResponse product) {
+        List<String> terms = new ArrayList<>(3);
+        Stream.of(product.getName(), product.getBrand(), product.getCategory())
+            .filter(Objects::nonNull)
+            .map(String::trim)
+            .filter(term -> !term.isEmpty())
+            .forEach(terms::add);
+        return terms;
+    }
+    
+    private void adjust(String term, int delta) {
+        for (String key : keysOf(term)) {
+            List<Node> path = insert(root, key, term, delta);
+            if (path != null) {
+                repair(path);
+            }
+        }
+    }
+    
+    /**
+     * Adjusts the count of {@code term} under {@code key}, splitting edges as needed, and
+     * returns the path from {@code from} to the key's node. Returns null when a removal
+     * targets a key that is not in the trie. Completion lists are left to the caller.
+     */
+    private List<Node> insert(Node from, String key, String term, int delta) {
+        List<Node> path = new ArrayList<>();
+        path.add(from);
+        Node node = from;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null) {
+                if (delta < 0) {
+                    return null;
+                }
+                child = node.putChild(new Node(key.substring(matched)));
+                matched = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, matched);
+                if (common < child.label.length()) {
+                    if (delta < 0) {
+                        return null;
+                    }
+                    child = node.putChild(child.split(common));
+                }
+                matched += common;
+            }
+            path.add(child);
+            node = child;
+        }
+        
+        String normalized = normalize(term);
+        TermCount existing = node.terms.get(normalized);
+        int count = Math.max(0, (existing == null ? 0 : existing.count) + delta);
+        if (count == 0) {
+            node.terms.remove(normalized);
+        } else {
+            node.terms.put(normalized, new TermCount(existing == null ? term.trim() : existing.text, count));
+        }
+        return path;
+    }
+    
+    // Only nodes on the changed path can have different completions; fix them bottom-up
+    private void repair(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            if (i > 0 && node.terms.isEmpty()) {
+                Node parent = path.get(i - 1);
+                Node[] children = node.children;
+                if (children.length == 0) {
+                    parent.removeChild(node.label.charAt(0));
+                    continue;
+                }
+                if (children.length == 1) {
+                    // Keep the trie compressed: fold the only child into this edge
+                    parent.putChild(children[0].withLabel(node.label + children[0].label));
+                    continue;
+                }
+            }
+            node.recomputeTop();
+        }
+    }
+    
+    private void recomputeSubtree(Node node) {
+        for (Node child : node.children) {
+            recomputeSubtree(child);
+        }
+        node.recomputeTop();
+    }
+    
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static final class Completion {
+        
+        private final String key;
+        private final String text;
+        private final int score;
+        
+        private Completion(String key, String text, int score) {
+            this.key = key;
+            this.text = text;
+            this.score = score;
+        }
+    }
+    
+    private static final class TermCount {
+        
+        private final String text;
+        private final int count;
+        
+        private TermCount(String text, int count) {
+            this.text = text;
+            this.count = count;
+        }
+    }
+    
+    private static final class Node {
+        
+        private static final Node[] NO_CHILDREN = new Node[0];
+        
+        // Edge label from the parent; children are told apart by its first character
+        private final String label;
+        
+        // Sorted by first label character; replaced, never mutated, so readers can walk without locking
+        private volatile Node[] children = NO_CHILDREN;
+        private volatile Completion[] top = NO_COMPLETIONS;
+        
+        // Normalized terms whose key ends at this node; only touched by the writer
+        private Map<String, TermCount> terms = new HashMap<>(2);
+        
+        private Node(String label) {
+            this.label = label;
+        }
+        
+        private Node child(char c) {
+            Node[] current = children;
+            int index = indexOf(current, c);
+            return index >= 0 ? current[index] : null;
+        }
+        
+        // Adds the child, or replaces the one starting with the same character; returns it
+        private Node putChild(Node child) {
+            Node[] current = children;
+            int index = indexOf(current, child.label.charAt(0));
+            Node[] updated;
+            if (index >= 0) {
+                updated = current.clone();
+                updated[index] = child;
+            } else {
+                int insertAt = -(index + 1);
+                updated = new Node[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, insertAt);
+                System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+                updated[insertAt] = child;
+            }
+            children = updated;
+            return child;
+        }
+        
+        private void removeChild(char c) {
+            Node[] current = children;
+            int index = indexOf(current, c);
+            if (index < 0) {
+                return;
+            }
+            Node[] updated = new Node[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            children = updated;
+        }
+        
+        // Copy under another label; the original stays intact for readers still walking it
+        private Node withLabel(String newLabel) {
+            Node copy = new Node(newLabel);
+            copy.children = children;
+            copy.top = top;
+            copy.terms = terms;
+            return copy;
+        }
+        
+        // A new node for the first {@code at} label characters whose only child is this edge's remainder
+        private Node split(int at) {
+            Node head = new Node(label.substring(0, at));
+            Node tail = withLabel(label.substring(at));
+            head.children = new Node[] {tail};
+            head.top = tail.top;
+            return head;
+        }
+        
+        private void recomputeTop() {
+            List<Completion> candidates = new ArrayList<>();
+            for (Map.Entry<String, TermCount> term : terms.entrySet()) {
+                candidates.add(new Completion(term.getKey(), term.getValue().text, term.getValue().count));
+            }
+            for (Node child : children) {
+                Collections.addAll(candidates, child.top);
+            }
+            candidates.sort(BY_RANK);
+            
+            // A term indexed under several of its words can reach this node more than once
+            List<Completion> best = new ArrayList<>(MAX_SUGGESTIONS);
+            Set<String> seen = new HashSet<>();
+            for (Completion candidate : candidates) {
+                if (best.size() == MAX_SUGGESTIONS) {
+                    break;
+                }
+                if (seen.add(candidate.key)) {
+                    best.add(candidate);
+                }
+            }
+            top = best.toArray(NO_COMPLETIONS);
+        }
+        
+        private static int indexOf(Node[] nodes, char c) {
+            int low = 0;
+            int high = nodes.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = nodes[mid].label.charAt(0);
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
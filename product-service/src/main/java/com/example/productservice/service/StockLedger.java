@@ -0,0 +1,216 @@
+package com.example.productservice.service;
+
+import com.example.productservice.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
+
+/**
+ * In-memory admission gate in front of the conditional stock UPDATE.
+ * Each product's known stock is split across per-core stripes that are claimed with CAS,
+ * so buyers of one hot product don't all spin on the same counter, and requests for
+ * sold-out products are turned away without touching the database. The database stays
+ * authoritative: a reservation granted here still has to pass the conditional UPDATE.
+ * Only products that exist are tracked, and the set is bounded and forgets idle products;
+ * an evicted product is simply reloaded from the database on its next reservation.
+ */
+@Component
+public class StockLedger {
+    
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1);
+    
+    // Counters sit 16 ints (one cache line) apart so neighbouring stripes don't false-share
+    private static final int PADDING = 16;
+    
+    @Value("${product.stock.ledger.refresh-ms:5000}")
+    private long refreshMillis;
+    
+    @Value("${product.stock.ledger.maximum-size:100000}")
+    private long maximumSize;
+    
+    @Value("${product.stock.ledger.expire-after-access:30m}")
+    private Duration expireAfterAccess;
+    
+    private Cache<Long, Entry> entries;
+    
+    @PostConstruct
+    public void init() {
+        entries = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterAccess(expireAfterAccess)
+            .build();
+    }
+    
+    /**
+     * Claims quantity units of the product. The loader supplies the current database stock
+     * when the product is not tracked yet, or when it is out of stock here and the entry is
+     * old enough that another instance may have restocked it. A null from the loader means
+     * the product does not exist (or is inactive): nothing is tracked and the claim fails.
+     * If the surrounding transaction rolls back, the claim is returned automatically.
+     */
+    public boolean tryReserve(Long productId, int quantity, Supplier<Integer> loader) {
+        Entry entry = entries.getIfPresent(productId);
+        if (entry == null) {
+            Integer stock = loader.get();
+            if (stock == null) {
+                return false;
+            }
+            entry = entries.asMap().computeIfAbsent(productId, id -> new Entry(stock));
+        }
+        
+        boolean reserved = entry.tryReserve(quantity);
+        if (!reserved && System.currentTimeMillis() - entry.loadedAt > refreshMillis) {
+            Integer stock = loader.get();
+            if (stock == null) {
+                entries.invalidate(productId);
+                return false;
+            }
+            Entry refreshed = new Entry(stock);
+            entries.put(productId, refreshed);
+            reserved = refreshed.tryReserve(quantity);
+        }
+        if (reserved) {
+            releaseOnRollback(productId, quantity);
+        }
+        return reserved;
+    }
+    
+    public void release(Long productId, int quantity) {
+        Entry entry = entries.getIfPresent(productId);
+        if (entry != null) {
+            entry.release(quantity);
+        }
+    }
+    
+    /**
+     * Gives back a claim whose reservation was abandoned, once the transaction that made it
+     * commits. A rollback already returns the claim, so this only covers the commit.
+     */
+    public void releaseOnCommit(Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(productId, quantity);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(productId, quantity);
+            }
+        });
+    }
+    
+    public void invalidate(Long productId) {
+        entries.invalidate(productId);
+    }
+    
+    public boolean isTracked(Long productId) {
+        return entries.getIfPresent(productId) != null;
+    }
+    
+    public long trackedCount() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+    
+    public int available(Long productId) {
+        Entry entry = entries.getIfPresent(productId);
+        return entry != null ? entry.available() : -1;
+    }
+    
+    // Admin edits and removals set stock directly; reload from the database on next use
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.isStockAdjustment()) {
+            invalidate(event.getProductId());
+        }
+    }
+    
+    private void releaseOnRollback(Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(productId, quantity);
+                }
+            }
+        });
+    }
+    
+    private static final class Entry {
+        
+        private final AtomicIntegerArray stripes = new AtomicIntegerArray(STRIPES * PADDING);
+        private final long loadedAt = System.currentTimeMillis();
+        
+        private Entry(int stock) {
+            int share = stock / STRIPES;
+            for (int i = 0; i < STRIPES; i++) {
+                stripes.set(i * PADDING, share);
+            }
+            stripes.addAndGet(0, stock - share * STRIPES);
+        }
+        
+        private boolean tryReserve(int quantity) {
+            int home = homeStripe();
+            for (int i = 0; i < STRIPES; i++) {
+                if (tryTake(((home + i) & (STRIPES - 1)) * PADDING, quantity)) {
+                    return true;
+                }
+            }
+            // No single stripe holds enough; pool everything and try once more
+            return consolidateAndTake(home, quantity);
+        }
+        
+        private boolean tryTake(int index, int quantity) {
+            while (true) {
+                int current = stripes.get(index);
+                if (current < quantity) {
+                    return false;
+                }
+                if (stripes.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        
+        private synchronized boolean consolidateAndTake(int home, int quantity) {
+            int total = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                total += stripes.getAndSet(i * PADDING, 0);
+            }
+            boolean reserved = total >= quantity;
+            if (reserved) {
+                total -= quantity;
+            }
+            stripes.addAndGet(home * PADDING, total);
+            return reserved;
+        }
+        
+        private void release(int quantity) {
+            stripes.addAndGet(homeStripe() * PADDING, quantity);
+        }
+        
+        private int available() {
+            int total = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                total += stripes.get(i * PADDING);
+            }
+            return total;
+        }
+        
+        private static int homeStripe() {
+            return (int) Thread.currentThread().getId() & (STRIPES - 1);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.ProductServiceApplication;
+import com.example.productservice.dto.ProductRequest;
+import com.example.productservice.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bytes on the wire and latency of the catalog endpoints, before (identity over HTTP/1.1)
+ * and after (gzip, over HTTP/1.1 and h2c). Boots product-service on a random port with 500
+ * products carrying 1000-character descriptions, and calls it with java.net.http. Latency
+ * includes decompressing the body, as a client would. The compressed body size of each
+ * combination is printed when its trial ends.
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec -Djmh.args=CatalogTransferBenchmark}
+ * from product-service. Add e.g. {@code -p path=/api/products/page?limit=50} to narrow it down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogTransferBenchmark {
+    
+    private static final int PRODUCTS = 500;
+    private static final int DESCRIPTION_LENGTH = 1000;
+    
+    private static final String[] WORDS = ("display battery camera wireless charging titanium aluminium glass "
+        + "processor memory storage graphics speaker microphone waterproof lightweight premium durable fast "
+        + "quiet ergonomic adjustable portable compact powerful efficient brilliant sharp vivid immersive "
+        + "comfortable reliable secure smart connected bluetooth cellular ultra wide angle zoom lens sensor "
+        + "keyboard trackpad stylus case strap band fitness health sleep tracking noise cancelling audio").split(" ");
+    
+    @Param({"/api/products", "/api/products/page?limit=50", "/api/products/category/Category%203",
+        "/api/products/search?keyword=product"})
+    private String path;
+    
+    @Param({"identity", "gzip"})
+    private String encoding;
+    
+    @Param({"HTTP_1_1", "HTTP_2"})
+    private String protocol;
+    
+    private ConfigurableApplicationContext context;
+    
+    private HttpClient client;
+    
+    private HttpRequest request;
+    
+    private long wireBytes;
+    
+    @Setup(Level.Trial)
+    public void startService() {
+        context = SpringApplication.run(ProductServiceApplication.class,
+            "--server.port=0",
+            "--eureka.client.enabled=false",
+            "--outbox.relay.enabled=false",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.productservice=WARN",
+            "--logging.level.org.springframework.web=WARN");
+        seed(context.getBean(ProductService.class));
+        
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.valueOf(protocol)).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", encoding)
+            .GET()
+            .build();
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopService() {
+        System.out.printf("%n%s %s %s: %,d bytes on the wire per response%n", path, encoding, protocol, wireBytes);
+        context.close();
+    }
+    
+    @Benchmark
+    public int fetch() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode());
+        }
+        byte[] body = response.body();
+        wireBytes = body.length;
+        boolean gzipped = response.headers().firstValue("Content-Encoding").map("gzip"::equals).orElse(false);
+        return gzipped ? decompressedLength(body) : body.length;
+    }
+    
+    private static int decompressedLength(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            byte[] buffer = new byte[8192];
+            int total = 0;
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                total += read;
+            }
+            return total;
+        }
+    }
+    
+    private static void seed(ProductService productService) {
+        List<ProductRequest> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new ProductRequest("Benchmark product " + i, description(new Random(i)), new BigDecimal("19.99"),
+                100, "Category " + (i % 10), "Brand " + (i % 25), "https://example.com/images/" + i + ".jpg"));
+        }
+        productService.saveImportedProducts(products);
+    }
+    
+    // Varied prose rather than one repeated phrase, which would compress unrealistically well
+    private static String description(Random random) {
+        StringBuilder description = new StringBuilder(DESCRIPTION_LENGTH);
+        while (description.length() < DESCRIPTION_LENGTH) {
+            description.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(10) == 0 ? ". " : " ");
+            if (random.nextInt(8) == 0) {
+                description.append(random.nextInt(10_000)).append(' ');
+            }
+        }
+        return description.substring(0, DESCRIPTION_LENGTH);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.productservice.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate sends for the products table, so plan tests EXPLAIN exactly
+ * what the repository generates rather than a hand-written copy of it.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+    
+    private static final List<String> STATEMENTS = new ArrayList<>();
+    
+    @Override
+    public String inspect(String sql) {
+        if (sql.toLowerCase().contains("products")) {
+            synchronized (STATEMENTS) {
+                STATEMENTS.add(sql);
+            }
+        }
+        return sql;
+    }
+    
+    public static void clear() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+    
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return new ArrayList<>(STATEMENTS);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every ProductRepository access path against a seeded H2 catalog, captures the SQL it
+ * actually sends and EXPLAINs it. A plan that falls back to a table scan, or whose index
+ * narrows on nothing but the active flag, fails the build unless the path is listed in
+ * WHOLE_CATALOG with the reason it has to read every active product.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "com.example.productservice.repository.CapturingStatementInspector")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductRepositoryQueryPlanTest {
+    
+    private static final String TABLE_SCAN = ".tableScan";
+    
+    // H2 prints the chosen index and its condition as /* PUBLIC.INDEX_NAME: CONDITION */
+    private static final Pattern INDEX_LOOKUP = Pattern.compile("/\\* ([\\w.]+): ([^*]+) \\*/");
+    private static final Pattern ACTIVE_CONDITION = Pattern.compile("ACTIVE = (1|TRUE)");
+    
+    private static final Pageable PAGE = PageRequest.of(0, 50);
+    private static final List<Long> IDS = Arrays.asList(1L, 2L, 3L);
+    
+    // Paths that read every active product by design, and why; they are not held to an index
+    private static final Map<String, String> WHOLE_CATALOG = new LinkedHashMap<>();
+    
+    static {
+        WHOLE_CATALOG.put("findByActiveTrue", "unpaged listing of the whole catalog");
+        WHOLE_CATALOG.put("findSummaries", "unpaged summary listing of the whole catalog");
+        WHOLE_CATALOG.put("streamActiveProducts", "catalog export and index rebuilds");
+        WHOLE_CATALOG.put("searchProducts", "contains-match LIKE '%keyword%'; search is served by ProductSearchIndex");
+    }
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private final Map<String, Runnable> accessPaths = new LinkedHashMap<>();
+    
+    // Batched JDBC paths bypass Hibernate, so their SQL is taken from the implementation itself
+    private final Map<String, String> jdbcPaths = new LinkedHashMap<>();
+    
+    @BeforeAll
+    void seedCatalog() {
+        // Enough rows, spread over categories, brands and stock levels, for the optimizer to choose as in production
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Product product = new Product("Product " + i, "Plan test product " + i, new BigDecimal("19.99"), 1 + i % 200,
+                "Category " + (i % 25), "Brand " + (i % 60), null);
+            product.setActive(i % 10 != 0);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+        jdbcTemplate.execute("ANALYZE");
+        
+        ProductRepository repo = productRepository;
+        accessPaths.put("findByActiveTrue", repo::findByActiveTrue);
+        accessPaths.put("findByCategoryAndActiveTrue", () -> repo.findByCategoryAndActiveTrue("Category 3"));
+        accessPaths.put("findByBrandAndActiveTrue", () -> repo.findByBrandAndActiveTrue("Brand 7"));
+        accessPaths.put("searchProducts", () -> repo.searchProducts("phone"));
+        accessPaths.put("findAvailableProducts", repo::findAvailableProducts);
+        accessPaths.put("findLowStockProducts", () -> repo.findLowStockProducts(10));
+        accessPaths.put("findByActiveTrueAndIdGreaterThanOrderByIdAsc",
+            () -> repo.findByActiveTrueAndIdGreaterThanOrderByIdAsc(100L, PAGE));
+        accessPaths.put("findByCategoryAndActiveTrueAndIdGreaterThanOrderByIdAsc",
+            () -> repo.findByCategoryAndActiveTrueAndIdGreaterThanOrderByIdAsc("Category 3", 100L, PAGE));
+        accessPaths.put("findByBrandAndActiveTrueAndIdGreaterThanOrderByIdAsc",
+            () -> repo.findByBrandAndActiveTrueAndIdGreaterThanOrderByIdAsc("Brand 7", 100L, PAGE));
+        accessPaths.put("findAvailableProductsAfter", () -> repo.findAvailableProductsAfter(100L, PAGE));
+        accessPaths.put("findSummaries", repo::findSummaries);
+        accessPaths.put("findSummariesByCategory", () -> repo.findSummariesByCategory("Category 3"));
+        accessPaths.put("findSummariesByBrand", () -> repo.findSummariesByBrand("Brand 7"));
+        accessPaths.put("findAvailableSummaries", repo::findAvailableSummaries);
+        accessPaths.put("findSummariesAfter", () -> repo.findSummariesAfter(100L, PAGE));
+        accessPaths.put("findSummariesByCategoryAfter", () -> repo.findSummariesByCategoryAfter("Category 3", 100L, PAGE));
+        accessPaths.put("findSummariesByBrandAfter", () -> repo.findSummariesByBrandAfter("Brand 7", 100L, PAGE));
+        accessPaths.put("findAvailableSummariesAfter", () -> repo.findAvailableSummariesAfter(100L, PAGE));
+        accessPaths.put("streamActiveProducts", () -> {
+            try (Stream<Product> stream = repo.streamActiveProducts()) {
+                stream.findFirst();
+            }
+        });
+        accessPaths.put("findStockQuantity", () -> repo.findStockQuantity(1L));
+        accessPaths.put("findStockLevels", () -> repo.findStockLevels(IDS));
+        accessPaths.put("findPrices", () -> repo.findPrices(IDS));
+        accessPaths.put("decrementStock", () -> repo.decrementStock(1L, 1));
+        accessPaths.put("incrementStock", () -> repo.incrementStock(1L, 1));
+        accessPaths.put("findByIdAndActiveTrue", () -> repo.findByIdAndActiveTrue(1L));
+        accessPaths.put("existsByIdAndActiveTrue", () -> repo.existsByIdAndActiveTrue(1L));
+        accessPaths.put("findFields", () -> {
+            List<String> fields = Arrays.asList("id", "name", "price");
+            repo.findFields(fields, ProductListing.all(), 100L, 50);
+            repo.findFields(fields, ProductListing.category("Category 3"), 100L, 50);
+            repo.findFields(fields, ProductListing.brand("Brand 7"), 100L, 50);
+            repo.findFields(fields, ProductListing.available(), 100L, 50);
+        });
+        jdbcPaths.put("decrementStockBatch", ProductRepositoryImpl.DECREMENT_STOCK_SQL);
+        jdbcPaths.put("incrementStockBatch", ProductRepositoryImpl.INCREMENT_STOCK_SQL);
+    }
+    
+    // A finder added without a plan check here fails the suite instead of going unverified
+    @Test
+    void everyRepositoryMethodHasAPlanCheck() {
+        Set<String> declared = new TreeSet<>();
+        for (Method method : ProductRepository.class.getDeclaredMethods()) {
+            declared.add(method.getName());
+        }
+        for (Method method : ProductRepositoryCustom.class.getDeclaredMethods()) {
+            declared.add(method.getName());
+        }
+        Set<String> checked = new TreeSet<>(accessPaths.keySet());
+        checked.addAll(jdbcPaths.keySet());
+        assertEquals(declared, checked);
+    }
+    
+    @TestFactory
+    Stream<DynamicTest> accessPathsUseAnIndex() {
+        Stream<DynamicTest> hibernatePaths = accessPaths.entrySet().stream()
+            .filter(path -> !WHOLE_CATALOG.containsKey(path.getKey()))
+            .map(path -> DynamicTest.dynamicTest(path.getKey(), () -> {
+                List<String> statements = capture(path.getValue());
+                assertFalse(statements.isEmpty(), "no SQL captured for " + path.getKey());
+                statements.forEach(sql -> assertIndexed(path.getKey(), sql));
+            }));
+        Stream<DynamicTest> batchPaths = jdbcPaths.entrySet().stream()
+            .map(path -> DynamicTest.dynamicTest(path.getKey(), () -> assertIndexed(path.getKey(), path.getValue())));
+        return Stream.concat(hibernatePaths, batchPaths);
+    }
+    
+    private void assertIndexed(String accessPath, String sql) {
+        String plan = explain(sql);
+        assertFalse(plan.contains(TABLE_SCAN), accessPath + " falls back to a table scan:\n" + plan);
+        
+        // An index lookup on active alone still visits nearly every row
+        Matcher lookup = INDEX_LOOKUP.matcher(plan);
+        assertTrue(lookup.find(), accessPath + " has no index condition:\n" + plan);
+        String narrowing = ACTIVE_CONDITION.matcher(lookup.group(2)).replaceAll("").replace("AND", "").trim();
+        assertFalse(narrowing.isEmpty(), accessPath + " only narrows on active:\n" + plan);
+    }
+    
+    // Runs the access path in a transaction that is rolled back, returning the product SQL it issued
+    private List<String> capture(Runnable accessPath) {
+        return transactionTemplate.execute(status -> {
+            CapturingStatementInspector.clear();
+            accessPath.run();
+            status.setRollbackOnly();
+            return CapturingStatementInspector.statements();
+        });
+    }
+    
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                ParameterMetaData parameters = statement.getParameterMetaData();
+                for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                    bindSample(statement, i, parameters.getParameterType(i));
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+    
+    // The plan depends on the statement shape, not on the values, so any value of the right type will do
+    private static void bindSample(PreparedStatement statement, int index, int type) throws SQLException {
+        switch (type) {
+            case Types.BOOLEAN:
+            case Types.BIT:
+                statement.setBoolean(index, true);
+                break;
+            case Types.VARCHAR:
+            case Types.CHAR:
+            case Types.LONGVARCHAR:
+            case Types.CLOB:
+                statement.setString(index, "x");
+                break;
+            case Types.TIMESTAMP:
+                statement.setTimestamp(index, new Timestamp(0));
+                break;
+            default:
+                statement.setLong(index, 1L);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductRequest;
+import com.example.productservice.dto.StockBatchRequest;
+import com.example.productservice.dto.StockItemRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCacheEvictionTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Test
+    void reservationEvictsTheCachedProductOnlyAfterCommit() {
+        Long id = productService.createProduct(new ProductRequest("Cached Item", null, new BigDecimal("5.00"), 10,
+            "Test", "Test", null)).getId();
+        productService.getProductById(id);
+        Cache cache = cacheManager.getCache(ProductService.PRODUCT_CACHE);
+        assertNotNull(cache.get(id));
+        
+        StockBatchRequest cart = new StockBatchRequest(Collections.singletonList(new StockItemRequest(id, 3)));
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(productService.reserveForOrder(900_001L, cart).isSuccess());
+            // Still cached: a reader repopulating it now would only see the pre-commit row
+            assertNotNull(cache.get(id));
+        });
+        
+        assertNull(cache.get(id));
+        assertEquals(7, productService.getProductById(id).getStockQuantity());
+    }
+}
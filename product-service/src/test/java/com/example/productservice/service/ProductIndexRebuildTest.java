@@ -0,0 +1,68 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The startup rebuild reads the catalog while requests are already changing it; changes seen
+ * in the meantime must survive the older snapshot being swapped in.
+ */
+class ProductIndexRebuildTest {
+    
+    @Test
+    void searchIndexKeepsChangesMadeWhileTheCatalogWasRead() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        
+        index.beginRebuild();
+        index.onProductChanged(ProductChangedEvent.updated(product(1L, "Trail Runner", 10)));
+        index.onProductChanged(ProductChangedEvent.stockAdjusted(1L, -3));
+        index.onProductChanged(ProductChangedEvent.removed(2L));
+        index.rebuild(Stream.of(product(1L, "Road Runner", 10), product(2L, "Desk Lamp", 5)));
+        
+        List<ProductResponse> trail = index.search("trail", 10);
+        assertEquals(1, trail.size());
+        assertEquals(7, trail.get(0).getStockQuantity());
+        assertTrue(index.search("road", 10).isEmpty());
+        assertTrue(index.search("lamp", 10).isEmpty());
+    }
+    
+    @Test
+    void suggestionIndexKeepsChangesMadeWhileTheCatalogWasRead() {
+        ProductSuggestionIndex index = new ProductSuggestionIndex();
+        
+        index.beginRebuild();
+        index.onProductChanged(ProductChangedEvent.updated(product(1L, "Trail Runner", 10)));
+        index.onProductChanged(ProductChangedEvent.removed(2L));
+        index.rebuild(Stream.of(product(1L, "Road Runner", 10), product(2L, "Desk Lamp", 5)));
+        
+        assertEquals(List.of("Trail Runner"), index.suggest("trail", 10));
+        assertTrue(index.suggest("road", 10).isEmpty());
+        assertTrue(index.suggest("desk", 10).isEmpty());
+    }
+    
+    @Test
+    void changesAfterTheRebuildAreNotReplayedAgain() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        
+        index.beginRebuild();
+        index.rebuild(Stream.of(product(1L, "Road Runner", 10)));
+        index.onProductChanged(ProductChangedEvent.stockAdjusted(1L, -3));
+        index.rebuild(Stream.of(product(1L, "Road Runner", 7)));
+        
+        assertEquals(7, index.search("road", 10).get(0).getStockQuantity());
+    }
+    
+    private static ProductResponse product(Long id, String name, int stock) {
+        return new ProductResponse(id, name, null, new BigDecimal("9.99"), stock, "Sports", "Acme", null,
+            LocalDateTime.now(), null, true);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.productservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockLedgerTest {
+    
+    private static final int THREADS = 16;
+    
+    private StockLedger ledger;
+    
+    @BeforeEach
+    void setUp() {
+        ledger = new StockLedger();
+        ReflectionTestUtils.setField(ledger, "refreshMillis", Long.MAX_VALUE);
+        ReflectionTestUtils.setField(ledger, "maximumSize", 100L);
+        ReflectionTestUtils.setField(ledger, "expireAfterAccess", Duration.ofMinutes(30));
+        ledger.init();
+    }
+    
+    @Test
+    void concurrentClaimsNeverOversell() throws Exception {
+        int stock = 10_000;
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger granted = new AtomicInteger();
+        
+        List<Integer> perThread = runConcurrently(() -> {
+            int mine = 0;
+            // Keep going well past the point where the product is sold out
+            for (int i = 0; i < stock; i++) {
+                if (ledger.tryReserve(1L, 1, () -> {
+                    loads.incrementAndGet();
+                    return stock;
+                })) {
+                    mine++;
+                }
+            }
+            granted.addAndGet(mine);
+            return mine;
+        });
+        
+        assertEquals(stock, granted.get(), "every unit is sold exactly once: " + perThread);
+        assertEquals(0, ledger.available(1L));
+        assertTrue(loads.get() >= 1);
+    }
+    
+    @Test
+    void mixedQuantitiesAndReleasesConserveStock() throws Exception {
+        int stock = 5_000;
+        AtomicInteger held = new AtomicInteger();
+        
+        runConcurrently(() -> {
+            int mine = 0;
+            for (int i = 0; i < 5_000; i++) {
+                int quantity = 1 + (i % 3);
+                if (ledger.tryReserve(2L, quantity, () -> stock)) {
+                    mine += quantity;
+                }
+                // Give some back now and then, as abandoned reservations do
+                if (i % 7 == 0 && mine >= 2) {
+                    ledger.release(2L, 2);
+                    mine -= 2;
+                }
+            }
+            held.addAndGet(mine);
+            return mine;
+        });
+        
+        int available = ledger.available(2L);
+        assertTrue(available >= 0, "stock went negative: " + available);
+        assertEquals(stock, held.get() + available);
+    }
+    
+    @Test
+    void unknownProductsAreNotTracked() {
+        assertFalse(ledger.tryReserve(404L, 1, () -> null));
+        assertFalse(ledger.isTracked(404L));
+        assertEquals(0, ledger.trackedCount());
+    }
+    
+    @Test
+    void trackedProductsAreBounded() {
+        for (long id = 0; id < 10_000; id++) {
+            ledger.tryReserve(id, 1, () -> 5);
+        }
+        assertTrue(ledger.trackedCount() <= 100, "tracked " + ledger.trackedCount());
+    }
+    
+    private interface Worker {
+        int run() throws Exception;
+    }
+    
+    private static List<Integer> runConcurrently(Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return worker.run();
+                }));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get(1, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
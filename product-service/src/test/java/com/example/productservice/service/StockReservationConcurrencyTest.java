@@ -0,0 +1,125 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductRequest;
+import com.example.productservice.dto.StockBatchRequest;
+import com.example.productservice.dto.StockItemRequest;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Hammers one product through both reservation paths (single-item updateStock and the
+ * all-or-nothing batch) from many threads and checks that exactly the stock on hand was sold.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationConcurrencyTest {
+    
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 40;
+    
+    private static final AtomicLong ORDER_IDS = new AtomicLong(500_000);
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        int hotStock = 150;
+        int otherStock = 400;
+        Long hot = createProduct("Hot Item", hotStock);
+        Long other = createProduct("Companion Item", otherStock);
+        AtomicInteger hotSold = new AtomicInteger();
+        AtomicInteger otherSold = new AtomicInteger();
+        
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if ((thread + i) % 2 == 0) {
+                            if (productService.updateStock(hot, 1)) {
+                                hotSold.incrementAndGet();
+                            }
+                        } else {
+                            StockBatchRequest cart = new StockBatchRequest(Arrays.asList(
+                                new StockItemRequest(hot, 1), new StockItemRequest(other, 1)));
+                            if (productService.reserveForOrder(ORDER_IDS.incrementAndGet(), cart).isSuccess()) {
+                                hotSold.incrementAndGet();
+                                otherSold.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        // 1280 attempts for 150 units: the hot product sells out exactly, never beyond
+        assertEquals(hotStock, hotSold.get());
+        assertEquals(0, stockOf(hot));
+        assertEquals(otherStock - otherSold.get(), stockOf(other));
+        assertEquals(0, stockLedger.available(hot));
+    }
+    
+    @Test
+    void unknownProductsAreRefusedWithoutBeingTracked() {
+        StockBatchRequest cart = new StockBatchRequest(Arrays.asList(new StockItemRequest(987654321L, 1)));
+        
+        assertFalse(productService.reserveForOrder(ORDER_IDS.incrementAndGet(), cart).isSuccess());
+        assertFalse(stockLedger.isTracked(987654321L));
+    }
+    
+    @Test
+    void quantitiesThatOverflowWhenMergedAreRefused() {
+        Long product = createProduct("Overflow Item", 10);
+        StockBatchRequest cart = new StockBatchRequest(Arrays.asList(
+            new StockItemRequest(product, Integer.MAX_VALUE), new StockItemRequest(product, Integer.MAX_VALUE)));
+        
+        assertFalse(productService.reserveForOrder(ORDER_IDS.incrementAndGet(), cart).isSuccess());
+        assertEquals(10, stockOf(product));
+    }
+    
+    private Long createProduct(String name, int stock) {
+        ProductRequest request = new ProductRequest(name, "Stress test product", new BigDecimal("9.99"), stock,
+            "Test", "Test", null);
+        return productService.createProduct(request).getId();
+    }
+    
+    private int stockOf(Long id) {
+        return productRepository.findById(id).orElseThrow(IllegalStateException::new).getStockQuantity();
+    }
+}
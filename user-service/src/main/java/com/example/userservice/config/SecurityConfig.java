@@ -1,6 +1,9 @@
 package com.example.userservice.config;
 
+import com.example.userservice.security.BoundedPasswordEncoder;
 import com.example.userservice.security.CustomUserDetailsService;
+import com.example.userservice.security.JwtAuthenticationFilter;
+import com.example.userservice.security.VerifiedTokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,8 +13,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -20,10 +22,12 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
     
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+    
+    // The application's only PasswordEncoder; BCrypt runs on its own bounded pool
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
     
     @Override
     @Bean
@@ -33,7 +37,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
     }
     
     @Override
@@ -41,13 +45,17 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         http
             .csrf().disable()
             .authorizeRequests()
-                .antMatchers("/api/users/register", "/api/users/login", "/api/users/health").permitAll()
+                .antMatchers("/api/users/register", "/api/users/login", "/api/users/health", "/api/users/availability").permitAll()
                 .antMatchers("/h2-console/**").permitAll()
                 .antMatchers("/actuator/**").permitAll()
+                // Pages through every account, so admins only
+                .antMatchers("/api/users/page").hasRole("ADMIN")
                 .anyRequest().authenticated()
             .and()
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and()
+            // Not a bean, so Boot doesn't also register it as a plain servlet filter
+            .addFilterBefore(new JwtAuthenticationFilter(verifiedTokenCache), UsernamePasswordAuthenticationFilter.class)
             .headers().frameOptions().disable(); // For H2 console
     }
 } 
\ No newline at end of file
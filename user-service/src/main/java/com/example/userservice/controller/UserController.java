@@ -1,19 +1,24 @@
 package com.example.userservice.controller;
 
 import com.example.userservice.dto.AuthResponse;
+import com.example.userservice.dto.AvailabilityResponse;
 import com.example.userservice.dto.LoginRequest;
+import com.example.userservice.dto.UserPageResponse;
 import com.example.userservice.dto.UserRegistrationRequest;
 import com.example.userservice.dto.UserResponse;
 import com.example.userservice.model.UserRole;
+import com.example.userservice.security.PasswordHashingUnavailableException;
 import com.example.userservice.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.persistence.EntityNotFoundException;
 import javax.validation.Valid;
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/users")
@@ -28,6 +33,8 @@ public class UserController {
         try {
             AuthResponse response = userService.registerUser(request);
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (PasswordHashingUnavailableException e) {
+            return hashingUnavailable(e, new AuthResponse(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new AuthResponse(e.getMessage()));
         }
@@ -38,6 +45,8 @@ public class UserController {
         try {
             AuthResponse response = userService.loginUser(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingUnavailableException e) {
+            return hashingUnavailable(e, new AuthResponse(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new AuthResponse(e.getMessage()));
         }
@@ -63,10 +72,30 @@ public class UserController {
         }
     }
     
-    @GetMapping
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(@RequestParam(required = false) String username,
+                                                                  @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.checkAvailability(username, email));
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<UserPageResponse> getUsersPage(
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String username,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort) {
+        try {
+            return ResponseEntity.ok(userService.getUsersPage(role, enabled, createdFrom, createdTo, username, page, size, sort));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @PutMapping("/{id}")
@@ -76,6 +105,8 @@ public class UserController {
             return ResponseEntity.ok(response);
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (PasswordHashingUnavailableException e) {
+            return hashingUnavailable(e, null);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -145,4 +176,10 @@ public class UserController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("User Service is running!");
     }
+    
+    private <T> ResponseEntity<T> hashingUnavailable(PasswordHashingUnavailableException e, T body) {
+        return ResponseEntity.status(e.getStatus())
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(body);
+    }
 } 
\ No newline at end of file
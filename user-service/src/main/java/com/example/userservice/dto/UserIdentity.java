@@ -0,0 +1,9 @@
+package com.example.userservice.dto;
+
+// Interface projection for streaming just the unique identifiers of every user
+public interface UserIdentity {
+    
+    String getUsername();
+    
+    String getEmail();
+}
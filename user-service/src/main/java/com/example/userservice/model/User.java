@@ -9,7 +9,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_created_at", columnList = "created_at"),
+    @Index(name = "idx_users_role_enabled", columnList = "role, enabled")
+})
 public class User {
     
     @Id
@@ -1,13 +1,35 @@
 package com.example.userservice.repository;
 
+import com.example.userservice.dto.UserIdentity;
+import com.example.userservice.dto.UserResponse;
 import com.example.userservice.model.User;
+import com.example.userservice.model.UserRole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    
+    String USER_FILTER =
+        "WHERE (:role IS NULL OR u.role = :role) " +
+        "AND (:enabled IS NULL OR u.enabled = :enabled) " +
+        "AND (:createdFrom IS NULL OR u.createdAt >= :createdFrom) " +
+        "AND (:createdTo IS NULL OR u.createdAt < :createdTo) " +
+        "AND (:usernamePattern IS NULL OR u.username LIKE :usernamePattern ESCAPE '\\')";
     
     Optional<User> findByUsername(String username);
     
@@ -20,4 +42,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     
     boolean existsByUsernameOrEmail(String username, String email);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<UserIdentity> streamIdentities();
+    
+    // Selects only the columns UserResponse needs; password hashes and account flags stay in the database
+    @Query(value = "SELECT new com.example.userservice.dto.UserResponse(u.id, u.username, u.email, u.firstName, " +
+            "u.lastName, u.phoneNumber, u.dateOfBirth, u.role, u.enabled, u.createdAt, u.updatedAt, u.lastLogin) " +
+            "FROM User u " + USER_FILTER,
+        countQuery = "SELECT COUNT(u) FROM User u " + USER_FILTER)
+    Page<UserResponse> findUserSummaries(@Param("role") UserRole role,
+                                         @Param("enabled") Boolean enabled,
+                                         @Param("createdFrom") LocalDateTime createdFrom,
+                                         @Param("createdTo") LocalDateTime createdTo,
+                                         @Param("usernamePattern") String usernamePattern,
+                                         Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 } 
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.userservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+    
+    /**
+     * Sets last_login for each user in one JDBC batch. A timestamp never moves
+     * last_login backwards, so out-of-order flushes are harmless.
+     */
+    int updateLastLoginBatch(Map<Long, LocalDateTime> lastLogins);
+}
@@ -0,0 +1,35 @@
+package com.example.userservice.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    
+    private static final String UPDATE_LAST_LOGIN_SQL =
+        "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public int updateLastLoginBatch(Map<Long, LocalDateTime> lastLogins) {
+        List<Object[]> args = new ArrayList<>(lastLogins.size());
+        for (Map.Entry<Long, LocalDateTime> entry : lastLogins.entrySet()) {
+            Timestamp lastLogin = Timestamp.valueOf(entry.getValue());
+            args.add(new Object[] {lastLogin, entry.getKey(), lastLogin});
+        }
+        
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN_SQL, args)) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            updated += Math.max(count, 0);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.userservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * BCrypt encoder that runs every hash on a small dedicated pool with a bounded queue.
+ * However many logins arrive at once, at most password.hashing.threads cores are spent
+ * on BCrypt; once the queue is full callers are turned away with 429 instead of piling up
+ * on request threads, so the rest of the service keeps its CPU.
+ * <p>
+ * Unless password.hashing.strength is set, the BCrypt cost is calibrated at startup to the
+ * highest cost that fits password.hashing.target-ms. Stored hashes with a lower cost are
+ * upgraded on the next successful login (see {@link CustomUserDetailsService#updatePassword}).
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${password.hashing.threads:0}")
+    private int threads;
+    
+    @Value("${password.hashing.queue-capacity:50}")
+    private int queueCapacity;
+    
+    @Value("${password.hashing.timeout-ms:2000}")
+    private long timeoutMillis;
+    
+    // 0 calibrates the cost at startup
+    @Value("${password.hashing.strength:0}")
+    private int strength;
+    
+    @Value("${password.hashing.target-ms:250}")
+    private long targetMillis;
+    
+    @Value("${password.hashing.min-strength:10}")
+    private int minStrength;
+    
+    @Value("${password.hashing.max-strength:14}")
+    private int maxStrength;
+    
+    private BCryptPasswordEncoder delegate;
+    
+    private ThreadPoolExecutor executor;
+    
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Timer queueWaitTimer;
+    private Counter saturatedCounter;
+    private Counter timeoutCounter;
+    
+    @PostConstruct
+    public void init() {
+        strength = strength > 0 ? strength : calibrate();
+        delegate = new BCryptPasswordEncoder(strength);
+        
+        // Leave a core for everything else the service does
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        
+        encodeTimer = Timer.builder("password.hash").tag("operation", "encode").register(meterRegistry);
+        matchesTimer = Timer.builder("password.hash").tag("operation", "matches").register(meterRegistry);
+        queueWaitTimer = Timer.builder("password.hash.queue.wait").register(meterRegistry);
+        saturatedCounter = Counter.builder("password.hash.rejected").tag("reason", "saturated").register(meterRegistry);
+        timeoutCounter = Counter.builder("password.hash.rejected").tag("reason", "timeout").register(meterRegistry);
+        Gauge.builder("password.hash.queue.depth", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("password.hash.strength", this, encoder -> encoder.strength).register(meterRegistry);
+        
+        logger.info("Password hashing: BCrypt cost {}, {} threads, queue capacity {}", strength, poolSize, queueCapacity);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only parses the cost out of the hash, cheap enough for the caller's thread
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    
+    public int getStrength() {
+        return strength;
+    }
+    
+    private <T> T submit(Timer timer, Callable<T> work) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(work);
+            });
+        } catch (RejectedExecutionException e) {
+            saturatedCounter.increment();
+            throw new PasswordHashingUnavailableException(HttpStatus.TOO_MANY_REQUESTS, 1,
+                "Too many concurrent password operations, please retry");
+        }
+        
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // A task still in the queue is skipped when its turn comes
+            future.cancel(false);
+            timeoutCounter.increment();
+            throw new PasswordHashingUnavailableException(HttpStatus.SERVICE_UNAVAILABLE, 2,
+                "Password operation timed out, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new PasswordHashingUnavailableException(HttpStatus.SERVICE_UNAVAILABLE, 1,
+                "Password operation interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+    
+    // Each extra cost step doubles the work, so stop at the last one that fits the budget
+    private int calibrate() {
+        new BCryptPasswordEncoder(4).encode("warm-up");
+        int chosen = minStrength;
+        for (int cost = minStrength; cost <= maxStrength; cost++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(cost).encode("calibration");
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logger.debug("BCrypt cost {} took {} ms", cost, elapsedMillis);
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosen = cost;
+            if (elapsedMillis * 2 > targetMillis) {
+                break;
+            }
+        }
+        return chosen;
+    }
+}
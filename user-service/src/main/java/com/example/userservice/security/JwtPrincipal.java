@@ -0,0 +1,61 @@
+package com.example.userservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Identity carried by a verified token. Built from the token claims alone, so
+ * authenticating a request never needs the users table.
+ */
+public final class JwtPrincipal implements Serializable {
+    
+    private final Long userId;
+    private final String username;
+    private final String role;
+    private final Instant expiresAt;
+    private final Collection<GrantedAuthority> authorities;
+    
+    public JwtPrincipal(Long userId, String username, String role, Instant expiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.expiresAt = expiresAt;
+        this.authorities = role != null
+            ? Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+            : Collections.emptyList();
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getRole() {
+        return role;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+    
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+    
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -7,23 +7,75 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Signs and verifies user tokens. Keys and the parser are built once at startup; callers
+ * should parse a token once with {@link #parseToken(String)} and read everything they need
+ * from the returned principal.
+ * <p>
+ * Tokens are signed with jwt.secret and carry jwt.key-id as their "kid" header. To rotate,
+ * move the old pair into jwt.retired-keys (comma-separated kid:secret entries) and set a
+ * new secret and key id; tokens issued under the old key stay valid until they expire.
+ */
 @Component
 public class JwtTokenUtil {
     
     @Value("${jwt.secret:defaultSecretKey}")
     private String secret;
     
+    @Value("${jwt.key-id:primary}")
+    private String keyId;
+    
+    @Value("${jwt.retired-keys:}")
+    private String retiredKeys;
+    
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private SecretKey signingKey;
+    
+    private Map<String, SecretKey> verificationKeys;
+    
+    private JwtParser parser;
+    
+    @PostConstruct
+    public void init() {
+        // Fails startup with a WeakKeyException if a secret is shorter than 256 bits
+        signingKey = toKey(secret);
+        
+        Map<String, SecretKey> keys = new HashMap<>();
+        keys.put(keyId, signingKey);
+        for (String entry : retiredKeys.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0 || separator == trimmed.length() - 1) {
+                throw new IllegalStateException("jwt.retired-keys entries must be kid:secret");
+            }
+            keys.putIfAbsent(trimmed.substring(0, separator), toKey(trimmed.substring(separator + 1)));
+        }
+        verificationKeys = Collections.unmodifiableMap(keys);
+        
+        // JwtParser is immutable and thread-safe once built
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
     }
     
     public String generateToken(User user) {
@@ -34,22 +86,43 @@ public class JwtTokenUtil {
     }
     
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyId)
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    /**
+     * Verifies the signature and expiry of a token and returns its claims.
+     *
+     * @throws JwtException if the token is malformed, badly signed, signed with an unknown key or expired
+     */
+    public JwtPrincipal parseToken(String token) {
+        Claims claims = extractAllClaims(token);
+        return new JwtPrincipal(
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+    }
+    
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        try {
+            // The parser already rejects expired tokens
+            return parseToken(token).getUsername().equals(userDetails.getUsername());
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
     }
     
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).getUsername();
     }
     
     public Date extractExpiration(String token) {
@@ -62,24 +135,30 @@ public class JwtTokenUtil {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseClaimsJws(token).getBody();
     }
     
     public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("userId", Long.class);
+        return parseToken(token).getUserId();
     }
     
     public String extractRole(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("role", String.class);
+        return parseToken(token).getRole();
+    }
+    
+    private Key resolveKey(String kid) {
+        // Tokens issued before key ids were introduced have no kid
+        if (kid == null) {
+            return signingKey;
+        }
+        SecretKey key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+    
+    private static SecretKey toKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
-} 
\ No newline at end of file
+}
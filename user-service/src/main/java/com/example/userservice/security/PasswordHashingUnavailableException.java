@@ -0,0 +1,27 @@
+package com.example.userservice.security;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a password could not be hashed or checked because the hashing pool is
+ * saturated (429) or the work did not finish in time (503). Clients should retry later.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+    
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+    
+    public PasswordHashingUnavailableException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public HttpStatus getStatus() {
+        return status;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
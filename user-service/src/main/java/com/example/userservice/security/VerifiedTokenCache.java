@@ -0,0 +1,111 @@
+package com.example.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Verifies bearer tokens and remembers the result until the token expires, so a client
+ * sending the same token on every request pays for the signature check once.
+ * Entries are keyed by a SHA-256 of the token rather than the token itself, which keeps
+ * usable credentials out of the heap and makes keys a fixed size.
+ */
+@Component
+public class VerifiedTokenCache {
+    
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    private Cache<String, JwtPrincipal> verified;
+    
+    @PostConstruct
+    public void init() {
+        verified = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<String, JwtPrincipal>() {
+                @Override
+                public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+                    return timeToLive(principal);
+                }
+                
+                @Override
+                public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                    return timeToLive(principal);
+                }
+                
+                @Override
+                public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+    
+    /**
+     * Returns the principal for a valid token, or null if the token is malformed,
+     * badly signed or expired.
+     */
+    public JwtPrincipal verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String key = hash(token);
+        JwtPrincipal principal = verified.getIfPresent(key);
+        if (principal != null) {
+            // The cache may still hold an entry for the last few milliseconds of its life
+            return principal.isExpired() ? null : principal;
+        }
+        
+        principal = parse(token);
+        if (principal != null && !principal.isExpired()) {
+            verified.put(key, principal);
+            return principal;
+        }
+        return null;
+    }
+    
+    public long size() {
+        return verified.estimatedSize();
+    }
+    
+    private JwtPrincipal parse(String token) {
+        try {
+            return jwtTokenUtil.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private static long timeToLive(JwtPrincipal principal) {
+        if (principal.getExpiresAt() == null) {
+            return Long.MAX_VALUE;
+        }
+        long nanos = Duration.between(Instant.now(), principal.getExpiresAt()).toNanos();
+        return Math.max(0, nanos);
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
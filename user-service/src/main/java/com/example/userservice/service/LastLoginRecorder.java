@@ -0,0 +1,89 @@
+package com.example.userservice.service;
+
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for last-login timestamps. Logins only record the time in memory;
+ * a scheduled flush writes the latest timestamp per user in a single batched UPDATE.
+ * A user logging in many times between flushes costs one row update.
+ * Pending timestamps are lost if the process dies before the next flush, which is
+ * acceptable for an informational column.
+ */
+@Component
+public class LastLoginRecorder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+    
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Counter flushedCounter;
+    
+    @PostConstruct
+    public void init() {
+        Gauge.builder("user.last-login.pending", pending, Map::size).register(meterRegistry);
+        flushedCounter = Counter.builder("user.last-login.flushed").register(meterRegistry);
+    }
+    
+    public void record(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+    
+    @Scheduled(fixedDelayString = "${user.last-login.flush-ms:1000}")
+    @Transactional
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        // remove(key, value) only succeeds if no newer login arrived meanwhile; a newer one waits for the next flush
+        Map<Long, LocalDateTime> batch = new HashMap<>();
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        try {
+            userRepository.updateLastLoginBatch(batch);
+            flushedCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            // Put the timestamps back for the next attempt unless newer ones arrived
+            batch.forEach(this::record);
+            throw e;
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush {} pending last-login updates on shutdown", pending.size(), e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserIdentity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over normalized usernames and emails. A negative answer is definite, so
+ * "is this name taken?" checks for unused names never reach the database; a positive
+ * answer still has to be confirmed with a query.
+ * <p>
+ * Bits can't be cleared, so deleted or renamed identities stay "maybe taken" until the
+ * next rebuild. Until the first build finishes every lookup reports "maybe".
+ */
+@Component
+public class UserIdentityFilter {
+    
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${user.identity-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    
+    @Value("${user.identity-filter.false-positive-rate:0.01}")
+    private double targetFalsePositiveRate;
+    
+    private volatile Bits current;
+    
+    // Receives concurrent additions while a rebuild is streaming the table
+    private Bits building;
+    
+    private volatile boolean ready;
+    
+    private Counter negativeCounter;
+    private Counter truePositiveCounter;
+    private Counter falsePositiveCounter;
+    
+    @PostConstruct
+    public void init() {
+        current = newBits();
+        negativeCounter = Counter.builder("user.identity-filter.lookups").tag("result", "negative").register(meterRegistry);
+        truePositiveCounter = Counter.builder("user.identity-filter.lookups").tag("result", "true-positive").register(meterRegistry);
+        falsePositiveCounter = Counter.builder("user.identity-filter.lookups").tag("result", "false-positive").register(meterRegistry);
+        
+        // Share of absent identities the filter failed to rule out
+        Gauge.builder("user.identity-filter.false-positive-rate", this, filter -> {
+            double falsePositives = filter.falsePositiveCounter.count();
+            double absent = falsePositives + filter.negativeCounter.count();
+            return absent == 0 ? 0 : falsePositives / absent;
+        }).register(meterRegistry);
+        Gauge.builder("user.identity-filter.expected-false-positive-rate", this, filter -> filter.current.expectedFalsePositiveRate())
+            .register(meterRegistry);
+        Gauge.builder("user.identity-filter.entries", this, filter -> filter.current.insertions.get()).register(meterRegistry);
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public void rebuild(Stream<UserIdentity> identities) {
+        Bits fresh = newBits();
+        synchronized (this) {
+            building = fresh;
+        }
+        identities.forEach(identity -> {
+            fresh.put(USERNAME_PREFIX + normalize(identity.getUsername()));
+            fresh.put(EMAIL_PREFIX + normalize(identity.getEmail()));
+        });
+        synchronized (this) {
+            current = fresh;
+            building = null;
+        }
+        ready = true;
+    }
+    
+    public synchronized void add(String username, String email) {
+        addTo(current, username, email);
+        if (building != null) {
+            addTo(building, username, email);
+        }
+    }
+    
+    public boolean mightContainUsername(String username) {
+        return mightContain(USERNAME_PREFIX + normalize(username));
+    }
+    
+    public boolean mightContainEmail(String email) {
+        return mightContain(EMAIL_PREFIX + normalize(email));
+    }
+    
+    /**
+     * Records the database answer for an identity the filter could not rule out,
+     * so the observed false-positive rate can be compared with the expected one.
+     */
+    public void recordLookup(boolean exists) {
+        (exists ? truePositiveCounter : falsePositiveCounter).increment();
+    }
+    
+    private boolean mightContain(String key) {
+        if (!ready) {
+            return true;
+        }
+        boolean maybe = current.mightContain(key);
+        if (!maybe) {
+            negativeCounter.increment();
+        }
+        return maybe;
+    }
+    
+    private void addTo(Bits bits, String username, String email) {
+        if (username != null) {
+            bits.put(USERNAME_PREFIX + normalize(username));
+        }
+        if (email != null) {
+            bits.put(EMAIL_PREFIX + normalize(email));
+        }
+    }
+    
+    // Case-folding can only merge keys, which adds positives but never hides a taken name
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private Bits newBits() {
+        // Every user contributes a username and an email key
+        long n = Math.max(1, expectedInsertions) * 2;
+        double p = Math.min(0.5, Math.max(1e-9, targetFalsePositiveRate));
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int hashes = (int) Math.max(1, Math.round((double) bits / n * Math.log(2)));
+        return new Bits(bits, hashes);
+    }
+    
+    private static final class Bits {
+        
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        private final AtomicLong bitCount = new AtomicLong();
+        private final AtomicLong insertions = new AtomicLong();
+        
+        private Bits(long bits, int hashes) {
+            int wordCount = (int) Math.min(Integer.MAX_VALUE, (bits + 63) >>> 6);
+            this.words = new AtomicLongArray(wordCount);
+            this.size = (long) wordCount << 6;
+            this.hashes = hashes;
+        }
+        
+        private void put(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long index = Math.floorMod(h1 + i * h2, size);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                while (true) {
+                    long value = words.get(word);
+                    if ((value & mask) != 0) {
+                        break;
+                    }
+                    if (words.compareAndSet(word, value, value | mask)) {
+                        bitCount.incrementAndGet();
+                        break;
+                    }
+                }
+            }
+            insertions.incrementAndGet();
+        }
+        
+        private boolean mightContain(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long index = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private double expectedFalsePositiveRate() {
+            return Math.pow((double) bitCount.get() / size, hashes);
+        }
+        
+        // 64-bit FNV-1a over the chars, finished with the MurmurHash3 mixer
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return mix(h);
+        }
+        
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
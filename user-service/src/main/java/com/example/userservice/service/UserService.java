@@ -1,32 +1,53 @@
 package com.example.userservice.service;
 
 import com.example.userservice.dto.AuthResponse;
+import com.example.userservice.dto.AvailabilityResponse;
 import com.example.userservice.dto.LoginRequest;
+import com.example.userservice.dto.UserIdentity;
+import com.example.userservice.dto.UserPageResponse;
 import com.example.userservice.dto.UserRegistrationRequest;
 import com.example.userservice.dto.UserResponse;
 import com.example.userservice.model.User;
 import com.example.userservice.model.UserRole;
 import com.example.userservice.repository.UserRepository;
 import com.example.userservice.security.CustomUserDetails;
+import com.example.userservice.security.JwtPrincipal;
 import com.example.userservice.security.JwtTokenUtil;
+import com.example.userservice.security.PasswordHashingUnavailableException;
+import com.example.userservice.security.VerifiedTokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class UserService {
     
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 200;
+    
+    private static final Set<String> SORTABLE_PROPERTIES = new HashSet<>(Arrays.asList(
+        "id", "username", "email", "firstName", "lastName", "role", "enabled", "createdAt", "lastLogin"
+    ));
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -39,9 +60,27 @@ public class UserService {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
     
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+    
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+    
+    @Autowired
+    private UserIdentityFilter identityFilter;
+    
+    // Loads the identity filter once the sample data (if any) has been written
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIdentityFilter() {
+        try (Stream<UserIdentity> identities = userRepository.streamIdentities()) {
+            identityFilter.rebuild(identities);
+        }
+    }
+    
     public AuthResponse registerUser(UserRegistrationRequest request) {
         // Check if username or email already exists
-        if (userRepository.existsByUsernameOrEmail(request.getUsername(), request.getEmail())) {
+        if (usernameOrEmailTaken(request.getUsername(), request.getEmail())) {
             throw new RuntimeException("Username or email already exists");
         }
         
@@ -58,11 +97,14 @@ public class UserService {
         user.setRole(UserRole.USER);
         
         User savedUser = userRepository.save(user);
+        identityFilter.add(savedUser.getUsername(), savedUser.getEmail());
         String token = jwtTokenUtil.generateToken(savedUser);
         
         return new AuthResponse(token, convertToResponse(savedUser));
     }
     
+    // Login writes nothing synchronously, so it runs without a transaction of its own
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse loginUser(LoginRequest request) {
         try {
             Authentication authentication = authenticationManager.authenticate(
@@ -71,16 +113,21 @@ public class UserService {
             
             SecurityContextHolder.getContext().setAuthentication(authentication);
             
-            User user = userRepository.findByUsernameOrEmail(request.getUsernameOrEmail(), request.getUsernameOrEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            // The user was already loaded to check the password
+            User user = ((CustomUserDetails) authentication.getPrincipal()).getUser();
             
-            // Update last login
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
+            // Update last login; written behind in batches
+            LocalDateTime loginTime = LocalDateTime.now();
+            lastLoginRecorder.record(user.getId(), loginTime);
             
             String token = jwtTokenUtil.generateToken(user);
-            return new AuthResponse(token, convertToResponse(user));
+            UserResponse response = convertToResponse(user);
+            response.setLastLogin(loginTime);
+            return new AuthResponse(token, response);
             
+        } catch (PasswordHashingUnavailableException e) {
+            // Overload, not bad credentials; let the client retry
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Invalid username/email or password");
         }
@@ -98,11 +145,23 @@ public class UserService {
         return convertToResponse(user);
     }
     
-    public List<UserResponse> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return users.stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public UserPageResponse getUsersPage(UserRole role, Boolean enabled, LocalDateTime createdFrom,
+                                         LocalDateTime createdTo, String usernamePrefix,
+                                         int page, int size, String sort) {
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), pageSize, parseSort(sort));
+        
+        String usernamePattern = null;
+        if (usernamePrefix != null && !usernamePrefix.isEmpty()) {
+            // Escape LIKE wildcards so the prefix is matched literally
+            usernamePattern = usernamePrefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        }
+        
+        Page<UserResponse> users = userRepository.findUserSummaries(
+            role, enabled, createdFrom, createdTo, usernamePattern, pageRequest);
+        return new UserPageResponse(users.getContent(), users.getNumber(), users.getSize(),
+            users.getTotalElements(), users.getTotalPages());
     }
     
     public UserResponse updateUser(Long id, UserRegistrationRequest request) {
@@ -111,12 +170,12 @@ public class UserService {
         
         // Check if new username or email conflicts with existing users
         if (!user.getUsername().equals(request.getUsername()) && 
-            userRepository.existsByUsername(request.getUsername())) {
+            usernameTaken(request.getUsername())) {
             throw new RuntimeException("Username already exists");
         }
         
         if (!user.getEmail().equals(request.getEmail()) && 
-            userRepository.existsByEmail(request.getEmail())) {
+            emailTaken(request.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
         
@@ -132,9 +191,18 @@ public class UserService {
         }
         
         User updatedUser = userRepository.save(user);
+        identityFilter.add(updatedUser.getUsername(), updatedUser.getEmail());
         return convertToResponse(updatedUser);
     }
     
+    @Transactional(readOnly = true)
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        Boolean usernameAvailable = username != null ? !usernameTaken(username) : null;
+        Boolean emailAvailable = email != null ? !emailTaken(email) : null;
+        return new AvailabilityResponse(usernameAvailable, emailAvailable);
+    }
+    
+    // Deleted identities stay in the filter until the next rebuild, which only costs a query
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
@@ -163,26 +231,66 @@ public class UserService {
     }
     
     public boolean validateToken(String token) {
-        try {
-            String username = jwtTokenUtil.extractUsername(token);
-            User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            CustomUserDetails userDetails = new CustomUserDetails(user);
-            return jwtTokenUtil.validateToken(token, userDetails);
-        } catch (Exception e) {
-            return false;
-        }
+        // Signature and expiry are all a token carries; no need to load the user
+        return verifiedTokenCache.verify(token) != null;
     }
     
+    @Transactional(readOnly = true)
     public UserResponse getCurrentUser(String token) {
-        try {
-            String username = jwtTokenUtil.extractUsername(token);
-            User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            return convertToResponse(user);
-        } catch (Exception e) {
+        JwtPrincipal principal = verifiedTokenCache.verify(token);
+        if (principal == null) {
             throw new RuntimeException("Invalid token");
         }
+        User user = userRepository.findById(principal.getUserId())
+            .orElseThrow(() -> new RuntimeException("Invalid token"));
+        return convertToResponse(user);
+    }
+    
+    // The identity filter answers "definitely not taken" without a query; anything else is confirmed
+    private boolean usernameTaken(String username) {
+        if (!identityFilter.mightContainUsername(username)) {
+            return false;
+        }
+        boolean exists = userRepository.existsByUsername(username);
+        identityFilter.recordLookup(exists);
+        return exists;
+    }
+    
+    private boolean emailTaken(String email) {
+        if (!identityFilter.mightContainEmail(email)) {
+            return false;
+        }
+        boolean exists = userRepository.existsByEmail(email);
+        identityFilter.recordLookup(exists);
+        return exists;
+    }
+    
+    private boolean usernameOrEmailTaken(String username, String email) {
+        boolean usernameMaybe = identityFilter.mightContainUsername(username);
+        boolean emailMaybe = identityFilter.mightContainEmail(email);
+        if (!usernameMaybe && !emailMaybe) {
+            return false;
+        }
+        boolean exists = userRepository.existsByUsernameOrEmail(username, email);
+        identityFilter.recordLookup(exists);
+        return exists;
+    }
+    
+    // "property" or "property,asc|desc"; the id tiebreaker keeps page boundaries stable
+    private Sort parseSort(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return Sort.by(Sort.Direction.ASC, "id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_PROPERTIES.contains(property)) {
+            throw new IllegalArgumentException("Cannot sort users by " + property);
+        }
+        Sort.Direction direction = parts.length > 1
+            ? Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.ASC)
+            : Sort.Direction.ASC;
+        Sort order = Sort.by(direction, property);
+        return "id".equals(property) ? order : order.and(Sort.by(Sort.Direction.ASC, "id"));
     }
     
     private UserResponse convertToResponse(User user) {
@@ -0,0 +1,60 @@
+package com.example.userservice.config;
+
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserRole;
+import com.example.userservice.security.JwtTokenUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserPageAuthorizationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    
+    @Test
+    void customersCannotPageThroughUsers() throws Exception {
+        mockMvc.perform(get("/api/users/page").header(HttpHeaders.AUTHORIZATION, bearer(UserRole.USER)))
+            .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void anonymousCallersCannotPageThroughUsers() throws Exception {
+        mockMvc.perform(get("/api/users/page"))
+            .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void adminsCanPageThroughUsers() throws Exception {
+        mockMvc.perform(get("/api/users/page").header(HttpHeaders.AUTHORIZATION, bearer(UserRole.ADMIN)))
+            .andExpect(status().isOk());
+    }
+    
+    @Test
+    void usersCannotBeListedWithoutPaging() throws Exception {
+        // The whole table is only reachable page by page, through /api/users/page
+        mockMvc.perform(get("/api/users").header(HttpHeaders.AUTHORIZATION, bearer(UserRole.USER)))
+            .andExpect(status().isNotFound());
+    }
+    
+    private String bearer(UserRole role) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername(role.name().toLowerCase());
+        user.setRole(role);
+        return "Bearer " + jwtTokenUtil.generateToken(user);
+    }
+}
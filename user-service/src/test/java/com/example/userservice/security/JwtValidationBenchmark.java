@@ -0,0 +1,92 @@
+package com.example.userservice.security;
+
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token validations per second: the original per-call key and parser with three parses per
+ * request, against one parse on the shared parser and against the verified-token cache.
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec -Djmh.args=JwtValidationBenchmark}
+ * from user-service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+    
+    private static final String SECRET = "benchmark-jwt-signing-secret-of-at-least-256-bits";
+    
+    private JwtTokenUtil jwtTokenUtil;
+    
+    private VerifiedTokenCache verifiedTokenCache;
+    
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenUtil, "keyId", "bench");
+        ReflectionTestUtils.setField(jwtTokenUtil, "retiredKeys", "");
+        ReflectionTestUtils.setField(jwtTokenUtil, "expiration", TimeUnit.HOURS.toMillis(1));
+        jwtTokenUtil.init();
+        
+        verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "jwtTokenUtil", jwtTokenUtil);
+        ReflectionTestUtils.setField(verifiedTokenCache, "maximumSize", 10_000L);
+        verifiedTokenCache.init();
+        
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark");
+        user.setRole(UserRole.USER);
+        token = jwtTokenUtil.generateToken(user);
+    }
+    
+    // What a request cost before: the filter read the subject, then validateToken read it and the expiry again
+    @Benchmark
+    public boolean perCallParserThreeParses() {
+        String username = legacyClaims(token).getSubject();
+        boolean sameUser = legacyClaims(token).getSubject().equals(username);
+        return sameUser && !legacyClaims(token).getExpiration().before(new Date());
+    }
+    
+    @Benchmark
+    public JwtPrincipal sharedParserOneParse() {
+        return jwtTokenUtil.parseToken(token);
+    }
+    
+    @Benchmark
+    public JwtPrincipal verifiedTokenCache() {
+        return verifiedTokenCache.verify(token);
+    }
+    
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+            .build()
+            .parseClaimsJws(token)
+            .getBody();
+    }
+}